@@ -0,0 +1,592 @@
+package com.rlautoshop.service;
+
+import com.google.gson.Gson;
+import com.rlautoshop.service.CustomerManager.Address;
+import com.rlautoshop.service.CustomerManager.Customer;
+import com.rlautoshop.service.CustomerManager.CustomerListener;
+import com.rlautoshop.service.VehicleService.MaintenanceRecord;
+import com.rlautoshop.service.VehicleService.Vehicle;
+import com.rlautoshop.service.VehicleService.VehicleListener;
+import com.rlautoshop.util.DateUtils;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Customer360Service - Maintained dashboard views of a customer, their vehicles and recent history
+ * Listens to the customer and vehicle stores, so edits made on the entities are reflected too;
+ * keeps Customer.vehicleIds and Vehicle.ownerId in step and rebuilds only the affected part of a view
+ */
+public class Customer360Service implements CustomerListener, VehicleListener {
+
+    /** Default number of history entries kept per vehicle */
+    public static final int DEFAULT_RECENT_HISTORY = 5;
+
+    private static final Gson gson = new Gson();
+    private static final Comparator<MaintenanceRecord> NEWEST_FIRST = Comparator.comparing(
+            MaintenanceRecord::getServiceDate, Comparator.nullsLast(Comparator.reverseOrder()));
+
+    private final CustomerManager customers;
+    private final VehicleService vehicles;
+    private final int recentHistory;
+    private final Map<String, Customer360> views;
+    private boolean updating;
+
+    public Customer360Service() {
+        this(new CustomerManager(), new VehicleService(), DEFAULT_RECENT_HISTORY);
+    }
+
+    public Customer360Service(CustomerManager customers, VehicleService vehicles, int recentHistory) {
+        this.customers = customers;
+        this.vehicles = vehicles;
+        this.recentHistory = recentHistory;
+        this.views = new ConcurrentHashMap<>();
+        // Bring links that were set on one side only into step before building views
+        for (Vehicle vehicle : vehicles.getAllVehicles()) {
+            Optional<Customer> owner = vehicle.getOwnerId() == null
+                    ? Optional.empty() : customers.findById(vehicle.getOwnerId());
+            if (owner.isPresent() && !owner.get().getVehicleIds().contains(vehicle.getId())) {
+                owner.get().addVehicle(vehicle.getId());
+            }
+        }
+        for (Customer customer : customers.getAllCustomers()) {
+            for (String vehicleId : new ArrayList<>(customer.getVehicleIds())) {
+                Optional<Vehicle> vehicle = vehicles.getVehicle(vehicleId);
+                if (!vehicle.isPresent() || isOwnedByOther(vehicle.get(), customer)) {
+                    customer.removeVehicle(vehicleId);
+                } else {
+                    vehicle.get().setOwnerId(customer.getId());
+                }
+            }
+            refresh(customer.getId());
+        }
+        customers.addListener(this);
+        vehicles.addListener(this);
+    }
+
+    /**
+     * Immutable dashboard payload for one customer, serialized once when built
+     */
+    public static final class Customer360 {
+        private final CustomerSummary customer;
+        private final List<VehicleSummary> vehicles;
+        private final transient String json;
+
+        Customer360(CustomerSummary customer, List<VehicleSummary> vehicles) {
+            this.customer = customer;
+            this.vehicles = Collections.unmodifiableList(new ArrayList<>(vehicles));
+            this.json = gson.toJson(this);
+        }
+
+        public CustomerSummary getCustomer() { return customer; }
+        public List<VehicleSummary> getVehicles() { return vehicles; }
+        public String toJson() { return json; }
+
+        Customer360 withCustomer(CustomerSummary summary) {
+            return new Customer360(summary, vehicles);
+        }
+
+        Customer360 withVehicle(VehicleSummary summary) {
+            List<VehicleSummary> updated = new ArrayList<>(vehicles);
+            int index = indexOf(summary.getId());
+            if (index >= 0) {
+                updated.set(index, summary);
+            } else {
+                updated.add(summary);
+            }
+            return new Customer360(customer, updated);
+        }
+
+        Customer360 withoutVehicle(String vehicleId) {
+            List<VehicleSummary> updated = new ArrayList<>(vehicles);
+            updated.removeIf(v -> v.getId().equals(vehicleId));
+            return new Customer360(customer, updated);
+        }
+
+        private int indexOf(String vehicleId) {
+            for (int i = 0; i < vehicles.size(); i++) {
+                if (vehicles.get(i).getId().equals(vehicleId)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Immutable snapshot of customer contact details
+     */
+    public static final class CustomerSummary {
+        private final String id;
+        private final String fullName;
+        private final String email;
+        private final String phone;
+        private final String address;
+
+        CustomerSummary(Customer customer) {
+            this.id = customer.getId();
+            this.fullName = customer.getFullName();
+            this.email = customer.getEmail();
+            this.phone = customer.getPhone();
+            this.address = customer.getAddress() == null ? null : customer.getAddress().toString();
+        }
+
+        public String getId() { return id; }
+        public String getFullName() { return fullName; }
+        public String getEmail() { return email; }
+        public String getPhone() { return phone; }
+        public String getAddress() { return address; }
+    }
+
+    /**
+     * Immutable snapshot of a vehicle with its most recent services
+     */
+    public static final class VehicleSummary {
+        private final String id;
+        private final String vin;
+        private final String displayName;
+        private final String color;
+        private final int mileage;
+        private final double totalMaintenanceCost;
+        private final List<ServiceEntry> recentHistory;
+
+        VehicleSummary(Vehicle vehicle, List<MaintenanceRecord> history, int limit) {
+            this.id = vehicle.getId();
+            this.vin = vehicle.getVin();
+            this.displayName = vehicle.getDisplayName();
+            this.color = vehicle.getColor();
+            this.mileage = vehicle.getMileage();
+            this.totalMaintenanceCost = history.stream().mapToDouble(MaintenanceRecord::getCost).sum();
+            this.recentHistory = Collections.unmodifiableList(history.stream()
+                    .sorted(NEWEST_FIRST)
+                    .limit(limit)
+                    .map(ServiceEntry::new)
+                    .collect(Collectors.toList()));
+        }
+
+        public String getId() { return id; }
+        public String getVin() { return vin; }
+        public String getDisplayName() { return displayName; }
+        public String getColor() { return color; }
+        public int getMileage() { return mileage; }
+        public double getTotalMaintenanceCost() { return totalMaintenanceCost; }
+        public List<ServiceEntry> getRecentHistory() { return recentHistory; }
+    }
+
+    /**
+     * Immutable snapshot of one maintenance record
+     */
+    public static final class ServiceEntry {
+        private final String id;
+        private final String serviceDate;
+        private final String serviceType;
+        private final String description;
+        private final double cost;
+        private final int mileageAtService;
+        private final String technicianName;
+
+        ServiceEntry(MaintenanceRecord record) {
+            Date date = record.getServiceDate();
+            this.id = record.getId();
+            this.serviceDate = date == null ? null : DateUtils.toLocalDateTime(date).toString();
+            this.serviceType = record.getServiceType();
+            this.description = record.getDescription();
+            this.cost = record.getCost();
+            this.mileageAtService = record.getMileageAtService();
+            this.technicianName = record.getTechnicianName();
+        }
+
+        public String getId() { return id; }
+        public String getServiceDate() { return serviceDate; }
+        public String getServiceType() { return serviceType; }
+        public String getDescription() { return description; }
+        public double getCost() { return cost; }
+        public int getMileageAtService() { return mileageAtService; }
+        public String getTechnicianName() { return technicianName; }
+    }
+
+    /**
+     * Get the dashboard view for a customer
+     */
+    public Optional<Customer360> getView(String customerId) {
+        return Optional.ofNullable(views.get(customerId));
+    }
+
+    /**
+     * Get the pre-serialized dashboard payload for a customer
+     */
+    public Optional<String> getDashboardJson(String customerId) {
+        Customer360 view = views.get(customerId);
+        return view == null ? Optional.empty() : Optional.of(view.toJson());
+    }
+
+    public synchronized Customer addCustomer(Customer customer) {
+        return applying(() -> {
+            customers.addCustomer(customer);
+            adopt(customer);
+            return customer;
+        });
+    }
+
+    public synchronized boolean updateCustomer(String id, String firstName, String lastName, String email) {
+        return applying(() -> {
+            if (!customers.updateCustomer(id, firstName, lastName, email)) {
+                return false;
+            }
+            updateCustomerView(customers.findById(id).get());
+            return true;
+        });
+    }
+
+    /**
+     * Update a customer's phone number and address
+     */
+    public synchronized boolean updateContact(String id, String phone, Address address) {
+        return applying(() -> {
+            Optional<Customer> customer = customers.findById(id);
+            if (!customer.isPresent()) {
+                return false;
+            }
+            customer.get().setPhone(phone);
+            customer.get().setAddress(address);
+            updateCustomerView(customer.get());
+            return true;
+        });
+    }
+
+    /**
+     * Delete a customer together with their vehicles and history
+     */
+    public synchronized boolean deleteCustomer(String id) {
+        return applying(() -> {
+            Optional<Customer> customer = customers.findById(id);
+            if (!customer.isPresent()) {
+                return false;
+            }
+            new ArrayList<>(customer.get().getVehicleIds()).forEach(vehicles::removeVehicle);
+            customers.deleteCustomer(id);
+            views.remove(id);
+            return true;
+        });
+    }
+
+    /**
+     * Add a vehicle and link it to its owner in both directions
+     */
+    public synchronized Vehicle addVehicle(String ownerId, Vehicle vehicle) {
+        return applying(() -> {
+            Customer owner = requireCustomer(ownerId);
+            vehicles.addVehicle(vehicle);
+            link(owner, vehicle);
+            updateVehicleView(vehicle);
+            return vehicle;
+        });
+    }
+
+    /**
+     * Move a vehicle and its history to another customer
+     */
+    public synchronized void transferVehicle(String vehicleId, String newOwnerId) {
+        applying(() -> {
+            Vehicle vehicle = requireVehicle(vehicleId);
+            link(requireCustomer(newOwnerId), vehicle);
+            updateVehicleView(vehicle);
+            return null;
+        });
+    }
+
+    public synchronized void updateMileage(String vehicleId, int mileage) {
+        applying(() -> {
+            Vehicle vehicle = requireVehicle(vehicleId);
+            vehicle.setMileage(mileage);
+            updateVehicleView(vehicle);
+            return null;
+        });
+    }
+
+    public synchronized void updateColor(String vehicleId, String color) {
+        applying(() -> {
+            Vehicle vehicle = requireVehicle(vehicleId);
+            vehicle.setColor(color);
+            updateVehicleView(vehicle);
+            return null;
+        });
+    }
+
+    /**
+     * Remove a vehicle and its history, unlinking it from its owner
+     */
+    public synchronized boolean removeVehicle(String vehicleId) {
+        return applying(() -> {
+            Optional<Vehicle> vehicle = vehicles.removeVehicle(vehicleId);
+            vehicle.ifPresent(this::unlink);
+            return vehicle.isPresent();
+        });
+    }
+
+    /**
+     * Add a fully populated maintenance record and update its vehicle's entry in the owner's view
+     */
+    public synchronized MaintenanceRecord addMaintenanceRecord(MaintenanceRecord record) {
+        return applying(() -> {
+            vehicles.addMaintenanceRecord(record);
+            updateVehicleView(requireVehicle(record.getVehicleId()));
+            return record;
+        });
+    }
+
+    /**
+     * Copy date, type, description, cost, mileage and technician onto the stored record with the same id
+     */
+    public synchronized boolean updateMaintenanceRecord(MaintenanceRecord changes) {
+        return applying(() -> {
+            Optional<MaintenanceRecord> stored = vehicles.getMaintenanceHistory(changes.getVehicleId()).stream()
+                    .filter(r -> r.getId().equals(changes.getId()))
+                    .findFirst();
+            if (!stored.isPresent()) {
+                return false;
+            }
+            MaintenanceRecord record = stored.get();
+            record.setServiceDate(changes.getServiceDate());
+            record.setServiceType(changes.getServiceType());
+            record.setDescription(changes.getDescription());
+            record.setCost(changes.getCost());
+            record.setMileageAtService(changes.getMileageAtService());
+            record.setTechnicianName(changes.getTechnicianName());
+            updateVehicleView(requireVehicle(record.getVehicleId()));
+            return true;
+        });
+    }
+
+    /**
+     * Rebuild a customer's view from the stored entities
+     */
+    public synchronized void refresh(String customerId) {
+        Optional<Customer> customer = customers.findById(customerId);
+        if (!customer.isPresent()) {
+            views.remove(customerId);
+            return;
+        }
+        List<VehicleSummary> summaries = new ArrayList<>();
+        for (String vehicleId : customer.get().getVehicleIds()) {
+            vehicles.getVehicle(vehicleId).ifPresent(v -> summaries.add(summarize(v)));
+        }
+        views.put(customerId, new Customer360(new CustomerSummary(customer.get()), summaries));
+    }
+
+    @Override
+    public synchronized void customerChanged(Customer customer) {
+        if (updating) {
+            return;
+        }
+        applying(() -> {
+            Customer360 view = views.get(customer.getId());
+            if (view == null) {
+                adopt(customer);
+                return null;
+            }
+            // Vehicles added to or removed from the customer's own list move their ownerId too
+            List<String> listed = customer.getVehicleIds();
+            for (VehicleSummary summary : view.getVehicles()) {
+                if (!listed.contains(summary.getId())) {
+                    vehicles.getVehicle(summary.getId())
+                            .filter(v -> customer.getId().equals(v.getOwnerId()))
+                            .ifPresent(v -> v.setOwnerId(null));
+                    views.computeIfPresent(customer.getId(), (key, v) -> v.withoutVehicle(summary.getId()));
+                }
+            }
+            for (String vehicleId : new ArrayList<>(listed)) {
+                if (view.indexOf(vehicleId) < 0) {
+                    Optional<Vehicle> vehicle = vehicles.getVehicle(vehicleId);
+                    if (vehicle.isPresent()) {
+                        link(customer, vehicle.get());
+                        updateVehicleView(vehicle.get());
+                    } else {
+                        customer.removeVehicle(vehicleId);
+                    }
+                }
+            }
+            updateCustomerView(customer);
+            return null;
+        });
+    }
+
+    /**
+     * A customer deleted from the store directly loses their vehicles and history, as with deleteCustomer
+     */
+    @Override
+    public synchronized void customerRemoved(Customer customer) {
+        if (updating) {
+            return;
+        }
+        applying(() -> {
+            customer.getVehicleIds().forEach(vehicles::removeVehicle);
+            views.remove(customer.getId());
+            return null;
+        });
+    }
+
+    @Override
+    public synchronized void vehicleChanged(Vehicle vehicle, String previousOwnerId) {
+        if (updating) {
+            return;
+        }
+        applying(() -> {
+            String ownerId = vehicle.getOwnerId();
+            if (previousOwnerId != null && !previousOwnerId.equals(ownerId)) {
+                customers.findById(previousOwnerId).ifPresent(c -> c.removeVehicle(vehicle.getId()));
+                views.computeIfPresent(previousOwnerId, (key, view) -> view.withoutVehicle(vehicle.getId()));
+            }
+            Optional<Customer> owner = ownerId == null ? Optional.empty() : customers.findById(ownerId);
+            if (owner.isPresent()) {
+                if (!owner.get().getVehicleIds().contains(vehicle.getId())) {
+                    owner.get().addVehicle(vehicle.getId());
+                }
+                updateVehicleView(vehicle);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public synchronized void vehicleRemoved(Vehicle vehicle) {
+        if (updating) {
+            return;
+        }
+        applying(() -> {
+            unlink(vehicle);
+            return null;
+        });
+    }
+
+    /**
+     * Run a change made by this service; entity notifications it triggers are ignored
+     * because the change updates the affected views itself
+     */
+    private <T> T applying(Supplier<T> change) {
+        boolean outer = !updating;
+        updating = true;
+        try {
+            return change.get();
+        } finally {
+            if (outer) {
+                updating = false;
+            }
+        }
+    }
+
+    /**
+     * Link every vehicle a new customer lists, dropping ids of unknown vehicles, then build the view
+     */
+    private void adopt(Customer customer) {
+        for (String vehicleId : new ArrayList<>(customer.getVehicleIds())) {
+            Optional<Vehicle> vehicle = vehicles.getVehicle(vehicleId);
+            if (vehicle.isPresent()) {
+                link(customer, vehicle.get());
+            } else {
+                customer.removeVehicle(vehicleId);
+            }
+        }
+        refresh(customer.getId());
+    }
+
+    private boolean isOwnedByOther(Vehicle vehicle, Customer customer) {
+        String ownerId = vehicle.getOwnerId();
+        return ownerId != null && !ownerId.equals(customer.getId()) && customers.findById(ownerId).isPresent();
+    }
+
+    /**
+     * Point the vehicle at its owner and keep both owners' vehicle lists and views matching
+     */
+    private void link(Customer owner, Vehicle vehicle) {
+        String previous = vehicle.getOwnerId();
+        if (previous != null && !previous.equals(owner.getId())) {
+            customers.findById(previous).ifPresent(c -> c.removeVehicle(vehicle.getId()));
+            views.computeIfPresent(previous, (key, view) -> view.withoutVehicle(vehicle.getId()));
+        }
+        vehicle.setOwnerId(owner.getId());
+        if (!owner.getVehicleIds().contains(vehicle.getId())) {
+            owner.addVehicle(vehicle.getId());
+        }
+    }
+
+    private void unlink(Vehicle vehicle) {
+        String ownerId = vehicle.getOwnerId();
+        if (ownerId != null) {
+            customers.findById(ownerId).ifPresent(owner -> owner.removeVehicle(vehicle.getId()));
+            views.computeIfPresent(ownerId, (key, view) -> view.withoutVehicle(vehicle.getId()));
+        }
+    }
+
+    private void updateCustomerView(Customer customer) {
+        views.computeIfPresent(customer.getId(), (key, view) -> view.withCustomer(new CustomerSummary(customer)));
+    }
+
+    private void updateVehicleView(Vehicle vehicle) {
+        views.computeIfPresent(vehicle.getOwnerId(), (key, view) -> view.withVehicle(summarize(vehicle)));
+    }
+
+    private VehicleSummary summarize(Vehicle vehicle) {
+        return new VehicleSummary(vehicle, vehicles.getMaintenanceHistory(vehicle.getId()), recentHistory);
+    }
+
+    private Customer requireCustomer(String id) {
+        return customers.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Customer not found: " + id));
+    }
+
+    private Vehicle requireVehicle(String id) {
+        return vehicles.getVehicle(id)
+                .orElseThrow(() -> new IllegalArgumentException("Vehicle not found: " + id));
+    }
+
+    /**
+     * Demo execution
+     */
+    public static void main(String[] args) {
+        System.out.println("RL Auto Shop - Customer 360 Views");
+        System.out.println("=================================\n");
+
+        Customer360Service service = new Customer360Service();
+
+        Customer john = service.addCustomer(new Customer("John", "Smith", "john.smith@email.com"));
+        Customer sarah = service.addCustomer(new Customer("Sarah", "Johnson", "sarah.j@email.com"));
+
+        Vehicle accord = service.addVehicle(john.getId(), new Vehicle("1HGCM82633A123456", "Honda", "Accord", 2020));
+        Vehicle highlander = service.addVehicle(john.getId(),
+                new Vehicle("5TDJKRFH0HS123456", "Toyota", "Highlander", 2021));
+        service.updateMileage(accord.getId(), 45000);
+
+        MaintenanceRecord oilChange = new MaintenanceRecord(accord.getId(), "Oil Change");
+        oilChange.setCost(45.99);
+        oilChange.setMileageAtService(45000);
+        oilChange.setTechnicianName("Mike Johnson");
+        service.addMaintenanceRecord(oilChange);
+
+        System.out.println("Dashboard for " + john.getFullName() + ":");
+        System.out.println(service.getDashboardJson(john.getId()).orElse("{}"));
+        System.out.println();
+
+        service.transferVehicle(highlander.getId(), sarah.getId());
+        System.out.println("After transferring the Highlander to " + sarah.getFullName() + ":");
+        System.out.println("  " + john.getFullName() + " vehicles: " + john.getVehicleIds().size()
+                + " (view: " + service.getView(john.getId()).get().getVehicles().size() + ")");
+        System.out.println("  " + sarah.getFullName() + " vehicles: " + sarah.getVehicleIds().size()
+                + " (view: " + service.getView(sarah.getId()).get().getVehicles().size() + ")");
+
+        oilChange.setCost(49.99);
+        accord.setColor("Silver");
+        john.setPhone("555-0101");
+        System.out.println("\nAfter editing the record, vehicle and customer directly:");
+        System.out.println(service.getDashboardJson(john.getId()).orElse("{}"));
+
+        System.out.println("\nCustomer 360 demonstration complete.");
+    }
+}
@@ -2,10 +2,17 @@ package com.rlautoshop.service;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSerializer;
+import com.rlautoshop.util.StringDictionary;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
 /**
@@ -14,11 +21,30 @@ import java.util.stream.Collectors;
  */
 public class CustomerManager {
     
-    private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    /** Shared dictionaries for repetitive address values */
+    public static final StringDictionary CITIES = new StringDictionary("cities");
+    public static final StringDictionary STATES = new StringDictionary("states");
+    
+    private static final Gson gson = new GsonBuilder()
+            .registerTypeAdapter(Address.class, (JsonSerializer<Address>) (a, type, ctx) -> a.toJson())
+            .setPrettyPrinting()
+            .create();
     private List<Customer> customers;
+    private Map<String, Customer> customersById;
+    private final List<CustomerListener> listeners;
     
     public CustomerManager() {
         this.customers = new ArrayList<>();
+        this.customersById = new HashMap<>();
+        this.listeners = new CopyOnWriteArrayList<>();
+    }
+    
+    /**
+     * Notified after a stored customer is added, edited or deleted
+     */
+    public interface CustomerListener {
+        void customerChanged(Customer customer);
+        void customerRemoved(Customer customer);
     }
     
     /**
@@ -32,6 +58,7 @@ public class CustomerManager {
         private String phone;
         private Address address;
         private List<String> vehicleIds;
+        private transient CustomerManager manager;
         
         public Customer(String firstName, String lastName, String email) {
             this.id = UUID.randomUUID().toString();
@@ -43,48 +70,78 @@ public class CustomerManager {
         
         public String getId() { return id; }
         public String getFirstName() { return firstName; }
-        public void setFirstName(String firstName) { this.firstName = firstName; }
+        public void setFirstName(String firstName) { this.firstName = firstName; changed(); }
         public String getLastName() { return lastName; }
-        public void setLastName(String lastName) { this.lastName = lastName; }
+        public void setLastName(String lastName) { this.lastName = lastName; changed(); }
         public String getEmail() { return email; }
-        public void setEmail(String email) { this.email = email; }
+        public void setEmail(String email) { this.email = email; changed(); }
         public String getPhone() { return phone; }
-        public void setPhone(String phone) { this.phone = phone; }
+        public void setPhone(String phone) { this.phone = phone; changed(); }
         public Address getAddress() { return address; }
-        public void setAddress(Address address) { this.address = address; }
-        public List<String> getVehicleIds() { return vehicleIds; }
-        public void addVehicle(String vehicleId) { this.vehicleIds.add(vehicleId); }
+        public void setAddress(Address address) { this.address = address; changed(); }
+        public List<String> getVehicleIds() { return Collections.unmodifiableList(vehicleIds); }
+        public void addVehicle(String vehicleId) { this.vehicleIds.add(vehicleId); changed(); }
+        public boolean removeVehicle(String vehicleId) {
+            boolean removed = this.vehicleIds.remove(vehicleId);
+            if (removed) {
+                changed();
+            }
+            return removed;
+        }
         
         public String getFullName() {
             return firstName + " " + lastName;
         }
+        
+        void attach(CustomerManager manager) {
+            this.manager = manager;
+        }
+        
+        private void changed() {
+            CustomerManager owner = manager;
+            if (owner != null) {
+                owner.customerChanged(this);
+            }
+        }
     }
     
     /**
      * Address value object
+     * City and state are stored as codes against the shared dictionaries
      */
     public static class Address {
         private String street;
-        private String city;
-        private String state;
+        private int cityCode;
+        private int stateCode;
         private String zipCode;
         
         public Address(String street, String city, String state, String zipCode) {
             this.street = street;
-            this.city = city;
-            this.state = state;
+            this.cityCode = CITIES.encode(city);
+            this.stateCode = STATES.encode(state);
             this.zipCode = zipCode;
         }
         
         // Getters
         public String getStreet() { return street; }
-        public String getCity() { return city; }
-        public String getState() { return state; }
+        public String getCity() { return CITIES.decode(cityCode); }
+        public int getCityCode() { return cityCode; }
+        public String getState() { return STATES.decode(stateCode); }
+        public int getStateCode() { return stateCode; }
         public String getZipCode() { return zipCode; }
         
+        JsonObject toJson() {
+            JsonObject json = new JsonObject();
+            json.addProperty("street", street);
+            json.addProperty("city", getCity());
+            json.addProperty("state", getState());
+            json.addProperty("zipCode", zipCode);
+            return json;
+        }
+        
         @Override
         public String toString() {
-            return street + ", " + city + ", " + state + " " + zipCode;
+            return street + ", " + getCity() + ", " + getState() + " " + zipCode;
         }
     }
     
@@ -92,8 +149,20 @@ public class CustomerManager {
      * Add a new customer
      */
     public Customer addCustomer(String firstName, String lastName, String email) {
-        Customer customer = new Customer(firstName, lastName, email);
+        return addCustomer(new Customer(firstName, lastName, email));
+    }
+    
+    /**
+     * Add an existing customer, e.g. one moved from another partition
+     */
+    public Customer addCustomer(Customer customer) {
+        if (customersById.containsKey(customer.getId())) {
+            throw new IllegalArgumentException("Customer already exists: " + customer.getId());
+        }
         customers.add(customer);
+        customersById.put(customer.getId(), customer);
+        customer.attach(this);
+        customerChanged(customer);
         return customer;
     }
     
@@ -101,9 +170,7 @@ public class CustomerManager {
      * Find customer by ID
      */
     public Optional<Customer> findById(String id) {
-        return customers.stream()
-                .filter(c -> c.getId().equals(id))
-                .findFirst();
+        return Optional.ofNullable(customersById.get(id));
     }
     
     /**
@@ -151,7 +218,27 @@ public class CustomerManager {
      * Delete customer
      */
     public boolean deleteCustomer(String id) {
-        return customers.removeIf(c -> c.getId().equals(id));
+        Customer removed = customersById.remove(id);
+        if (removed == null || !customers.remove(removed)) {
+            return false;
+        }
+        removed.attach(null);
+        listeners.forEach(l -> l.customerRemoved(removed));
+        return true;
+    }
+    
+    /**
+     * Register a listener for changes to stored customers, including edits made on the entities
+     */
+    public void addListener(CustomerListener listener) {
+        listeners.add(listener);
+    }
+    
+    /**
+     * Called by a stored customer after one of its fields changed
+     */
+    void customerChanged(Customer customer) {
+        listeners.forEach(l -> l.customerChanged(customer));
     }
     
     /**
@@ -0,0 +1,178 @@
+package com.rlautoshop.service;
+
+import com.rlautoshop.service.CustomerManager.Address;
+import com.rlautoshop.service.VehicleService.MaintenanceRecord;
+import com.rlautoshop.service.VehicleService.Vehicle;
+import java.util.Date;
+import java.util.UUID;
+import java.util.function.IntFunction;
+
+/**
+ * FootprintReport - Measures retained heap per entity
+ * Compares the dictionary-encoded entities against their plain string layout
+ */
+public class FootprintReport {
+
+    private static final String[] MAKES = {"Honda", "Ford", "Toyota", "Chevrolet", "Nissan"};
+    private static final String[] MODELS = {"Accord", "F-150", "Highlander", "Silverado", "Altima"};
+    private static final String[] COLORS = {"Silver", "Blue", "White", "Black", "Red"};
+    private static final String[] CITIES = {"Springfield", "Chicago", "Peoria", "Naperville"};
+    private static final String[] STATES = {"IL", "WI", "IN"};
+    private static final String[] SERVICE_TYPES = {"Oil Change", "Brake Inspection", "Tire Rotation"};
+    private static final String[] TECHNICIANS = {"Mike Johnson", "Sarah Smith", "Luis Ortega"};
+
+    /**
+     * Vehicle with one string instance per field, as before dictionary encoding
+     */
+    static class PlainVehicle {
+        final String id = UUID.randomUUID().toString();
+        String vin;
+        String make;
+        String model;
+        int year;
+        String color;
+        int mileage;
+        String ownerId;
+    }
+
+    /**
+     * Address with one string instance per field, as before dictionary encoding
+     */
+    static class PlainAddress {
+        String street;
+        String city;
+        String state;
+        String zipCode;
+    }
+
+    /**
+     * Maintenance record with one string instance per field, as before dictionary encoding
+     */
+    static class PlainMaintenanceRecord {
+        final String id = UUID.randomUUID().toString();
+        String vehicleId;
+        Date serviceDate = new Date();
+        String serviceType;
+        String description;
+        double cost;
+        int mileageAtService;
+        String technicianName;
+    }
+
+    /**
+     * Copy a value so every entity gets its own instance, as when read from a request or database row
+     */
+    private static String fresh(String[] values, int i) {
+        return new String(values[i % values.length]);
+    }
+
+    /**
+     * Average retained bytes per object produced by the factory
+     */
+    static long bytesPerEntity(int count, IntFunction<Object> factory) {
+        Object[] retained = new Object[count];
+        long before = usedMemory();
+        for (int i = 0; i < count; i++) {
+            retained[i] = factory.apply(i);
+        }
+        long after = usedMemory();
+        long perEntity = (after - before) / count;
+        // Keep the entities reachable until after the measurement
+        if (retained[count - 1] == null) {
+            throw new IllegalStateException("Entity was not created");
+        }
+        return perEntity;
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void printRow(String entity, long plain, long encoded) {
+        System.out.println(String.format("%-20s %10d %10d %9.1f%%",
+                entity, plain, encoded, 100.0 * (plain - encoded) / plain));
+    }
+
+    /**
+     * Demo execution
+     */
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+
+        System.out.println("RL Auto Shop - Entity Footprint Report");
+        System.out.println("======================================\n");
+        System.out.println("Entities per sample: " + count + "\n");
+
+        // Warm up the dictionaries so their one-time cost is not charged to the sample
+        bytesPerEntity(1000, i -> new Vehicle("VIN" + i, fresh(MAKES, i), fresh(MODELS, i), 2020));
+
+        long plainVehicle = bytesPerEntity(count, i -> {
+            PlainVehicle v = new PlainVehicle();
+            v.vin = "1HGCM8263" + i;
+            v.make = fresh(MAKES, i);
+            v.model = fresh(MODELS, i);
+            v.year = 2000 + i % 25;
+            v.color = fresh(COLORS, i);
+            v.mileage = i;
+            return v;
+        });
+        long encodedVehicle = bytesPerEntity(count, i -> {
+            Vehicle v = new Vehicle("1HGCM8263" + i, fresh(MAKES, i), fresh(MODELS, i), 2000 + i % 25);
+            v.setColor(fresh(COLORS, i));
+            v.setMileage(i);
+            return v;
+        });
+
+        long plainAddress = bytesPerEntity(count, i -> {
+            PlainAddress a = new PlainAddress();
+            a.street = i + " Main St";
+            a.city = fresh(CITIES, i);
+            a.state = fresh(STATES, i);
+            a.zipCode = "627" + (i % 100);
+            return a;
+        });
+        long encodedAddress = bytesPerEntity(count, i ->
+                new Address(i + " Main St", fresh(CITIES, i), fresh(STATES, i), "627" + (i % 100)));
+
+        long plainRecord = bytesPerEntity(count, i -> {
+            PlainMaintenanceRecord r = new PlainMaintenanceRecord();
+            r.vehicleId = "vehicle-" + (i % 1000);
+            r.serviceType = fresh(SERVICE_TYPES, i);
+            r.cost = 45.99;
+            r.mileageAtService = i;
+            r.technicianName = fresh(TECHNICIANS, i);
+            return r;
+        });
+        long encodedRecord = bytesPerEntity(count, i -> {
+            MaintenanceRecord r = new MaintenanceRecord("vehicle-" + (i % 1000), fresh(SERVICE_TYPES, i));
+            r.setCost(45.99);
+            r.setMileageAtService(i);
+            r.setTechnicianName(fresh(TECHNICIANS, i));
+            return r;
+        });
+
+        System.out.println(String.format("%-20s %10s %10s %10s", "Entity", "Plain", "Encoded", "Saved"));
+        printRow("Vehicle", plainVehicle, encodedVehicle);
+        printRow("Address", plainAddress, encodedAddress);
+        printRow("MaintenanceRecord", plainRecord, encodedRecord);
+        System.out.println("\n(bytes per entity, including owned strings)");
+        System.out.println("Encoded Vehicle and MaintenanceRecord include a back-reference to the owning");
+        System.out.println("VehicleService, 4 bytes with compressed oops and 8 without, which reports entity");
+        System.out.println("edits to the revenue rollup and Customer 360 views.\n");
+
+        System.out.println("Dictionaries: " + VehicleService.MAKES + ", " + VehicleService.MODELS + ", "
+                + VehicleService.COLORS + ", " + VehicleService.SERVICE_TYPES + ", "
+                + VehicleService.TECHNICIANS + ", " + CustomerManager.CITIES + ", " + CustomerManager.STATES);
+
+        System.out.println("\nFootprint report complete.");
+    }
+}
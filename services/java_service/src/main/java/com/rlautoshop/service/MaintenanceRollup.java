@@ -0,0 +1,487 @@
+package com.rlautoshop.service;
+
+import com.rlautoshop.service.VehicleService.MaintenanceRecord;
+import com.rlautoshop.util.DateUtils;
+import com.rlautoshop.util.StringDictionary;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collector;
+
+/**
+ * MaintenanceRollup - Revenue and job counts bucketed by service day
+ * Keeps Fenwick trees keyed by epoch-day so any date range is answered in O(log days)
+ */
+public class MaintenanceRollup {
+
+    /** Earliest and latest service dates kept in day buckets; others are counted as unbucketed */
+    public static final LocalDate MIN_DATE = LocalDate.of(1900, 1, 1);
+    public static final LocalDate MAX_DATE = LocalDate.of(2199, 12, 31);
+
+    private static final long MIN_EPOCH_DAY = MIN_DATE.toEpochDay();
+    private static final long MAX_EPOCH_DAY = MAX_DATE.toEpochDay();
+    private static final int WINDOW_DAYS = (int) (MAX_EPOCH_DAY - MIN_EPOCH_DAY + 1);
+
+    /** Days per block; a block's tree is only allocated once it holds a record */
+    private static final int BLOCK_SHIFT = 8;
+    private static final int BLOCK_DAYS = 1 << BLOCK_SHIFT;
+    private static final int BLOCKS = (WINDOW_DAYS + BLOCK_DAYS - 1) / BLOCK_DAYS;
+
+    /**
+     * Report bucket size
+     */
+    public enum Granularity { DAY, WEEK, MONTH }
+
+    /**
+     * Job count and revenue for a date range
+     */
+    public static class Totals {
+        private final LocalDate from;
+        private final LocalDate to;
+        private final long jobCount;
+        private final double revenue;
+
+        public Totals(LocalDate from, LocalDate to, long jobCount, double revenue) {
+            this.from = from;
+            this.to = to;
+            this.jobCount = jobCount;
+            this.revenue = revenue;
+        }
+
+        public LocalDate getFrom() { return from; }
+        public LocalDate getTo() { return to; }
+        public long getJobCount() { return jobCount; }
+        public double getRevenue() { return revenue; }
+
+        @Override
+        public String toString() {
+            return from + ".." + to + ": " + jobCount + " jobs, $" + String.format("%.2f", revenue);
+        }
+    }
+
+    /**
+     * Job count and revenue in cents per day of the window, as a two-level Fenwick tree
+     * The top level sums whole blocks and each used block has its own tree, so a series
+     * costs about 10 KB plus 4 KB per 256-day block that holds records
+     */
+    static class Series {
+        private final long[] blockCounts = new long[BLOCKS + 1];
+        private final long[] blockCents = new long[BLOCKS + 1];
+        private final long[][] counts = new long[BLOCKS][];
+        private final long[][] cents = new long[BLOCKS][];
+
+        void add(int day, long count, long amount) {
+            int block = day >>> BLOCK_SHIFT;
+            if (counts[block] == null) {
+                counts[block] = new long[BLOCK_DAYS + 1];
+                cents[block] = new long[BLOCK_DAYS + 1];
+            }
+            add(counts[block], cents[block], (day & (BLOCK_DAYS - 1)) + 1, count, amount);
+            add(blockCounts, blockCents, block + 1, count, amount);
+        }
+
+        private static void add(long[] counts, long[] cents, int index, long count, long amount) {
+            for (int i = index; i < counts.length; i += i & -i) {
+                counts[i] += count;
+                cents[i] += amount;
+            }
+        }
+
+        /**
+         * Job count for days 0 through day inclusive; day -1 gives zero
+         */
+        long prefixCount(int day) {
+            return prefix(blockCounts, counts, day);
+        }
+
+        /**
+         * Revenue in cents for days 0 through day inclusive; day -1 gives zero
+         */
+        long prefixCents(int day) {
+            return prefix(blockCents, cents, day);
+        }
+
+        private static long prefix(long[] top, long[][] blocks, int day) {
+            if (day < 0) {
+                return 0;
+            }
+            int block = day >>> BLOCK_SHIFT;
+            long sum = 0;
+            for (int i = block; i > 0; i -= i & -i) {
+                sum += top[i];
+            }
+            long[] tree = blocks[block];
+            if (tree != null) {
+                for (int i = (day & (BLOCK_DAYS - 1)) + 1; i > 0; i -= i & -i) {
+                    sum += tree[i];
+                }
+            }
+            return sum;
+        }
+
+        /**
+         * Add another series into this one; Fenwick trees of the same shape add element-wise
+         */
+        void merge(Series other) {
+            addAll(blockCounts, other.blockCounts);
+            addAll(blockCents, other.blockCents);
+            for (int block = 0; block < BLOCKS; block++) {
+                if (other.counts[block] == null) {
+                    continue;
+                }
+                if (counts[block] == null) {
+                    counts[block] = other.counts[block].clone();
+                    cents[block] = other.cents[block].clone();
+                } else {
+                    addAll(counts[block], other.counts[block]);
+                    addAll(cents[block], other.cents[block]);
+                }
+            }
+        }
+
+        private static void addAll(long[] target, long[] values) {
+            for (int i = 0; i < target.length; i++) {
+                target[i] += values[i];
+            }
+        }
+    }
+
+    /**
+     * Per-thread partial result for a parallel rebuild
+     */
+    private static class Accumulator {
+        private final Series total = new Series();
+        private final Map<Integer, Series> byServiceType = new HashMap<>();
+        private final Map<Integer, Series> byTechnician = new HashMap<>();
+        private long unbucketedCount;
+        private long unbucketedCents;
+
+        void add(MaintenanceRecord record) {
+            apply(record, 1);
+        }
+
+        /**
+         * Count or uncount a record in its service day bucket
+         */
+        void apply(MaintenanceRecord record, int sign) {
+            if (record.getServiceDate() == null) {
+                return;
+            }
+            long epochDay = DateUtils.toEpochDay(record.getServiceDate());
+            long amount = sign * toCents(record.getCost());
+            if (!inWindow(epochDay)) {
+                unbucketedCount += sign;
+                unbucketedCents += amount;
+                return;
+            }
+            int day = (int) (epochDay - MIN_EPOCH_DAY);
+            total.add(day, sign, amount);
+            if (record.getServiceTypeCode() != StringDictionary.NULL_CODE) {
+                byServiceType.computeIfAbsent(record.getServiceTypeCode(), k -> new Series()).add(day, sign, amount);
+            }
+            if (record.getTechnicianCode() != StringDictionary.NULL_CODE) {
+                byTechnician.computeIfAbsent(record.getTechnicianCode(), k -> new Series()).add(day, sign, amount);
+            }
+        }
+
+        Accumulator merge(Accumulator other) {
+            unbucketedCount += other.unbucketedCount;
+            unbucketedCents += other.unbucketedCents;
+            total.merge(other.total);
+            other.byServiceType.forEach((code, series) ->
+                    byServiceType.merge(code, series, (a, b) -> { a.merge(b); return a; }));
+            other.byTechnician.forEach((code, series) ->
+                    byTechnician.merge(code, series, (a, b) -> { a.merge(b); return a; }));
+            return this;
+        }
+    }
+
+    private Accumulator counters;
+
+    public MaintenanceRollup() {
+        this.counters = new Accumulator();
+    }
+
+    /**
+     * Count a record in its service day bucket
+     */
+    public synchronized void add(MaintenanceRecord record) {
+        counters.apply(record, 1);
+    }
+
+    /**
+     * Remove a previously counted record from its service day bucket
+     */
+    public synchronized void remove(MaintenanceRecord record) {
+        counters.apply(record, -1);
+    }
+
+    /**
+     * Replace all buckets with counts rebuilt from the given history, in parallel
+     * Callers must not add, remove or edit records while this runs: the rebuilt counters
+     * replace the current ones, so changes made meanwhile would be lost
+     */
+    public void rebuild(Collection<? extends Collection<MaintenanceRecord>> history) {
+        Accumulator result = history.parallelStream()
+                .flatMap(Collection::stream)
+                .collect(Collector.of(Accumulator::new, Accumulator::add, Accumulator::merge));
+        synchronized (this) {
+            this.counters = result;
+        }
+    }
+
+    /**
+     * Job count and revenue for records dated outside MIN_DATE..MAX_DATE, which no range includes
+     */
+    public synchronized Totals getUnbucketed() {
+        return new Totals(null, null, counters.unbucketedCount, counters.unbucketedCents / 100.0);
+    }
+
+    /**
+     * Totals for all services between two dates, inclusive
+     */
+    public synchronized Totals total(LocalDate from, LocalDate to) {
+        return query(counters.total, from, to);
+    }
+
+    /**
+     * Totals for one service type between two dates, inclusive
+     */
+    public synchronized Totals totalForServiceType(String serviceType, LocalDate from, LocalDate to) {
+        return query(counters.byServiceType.get(VehicleService.SERVICE_TYPES.lookup(serviceType)), from, to);
+    }
+
+    /**
+     * Totals for one technician between two dates, inclusive
+     */
+    public synchronized Totals totalForTechnician(String technicianName, LocalDate from, LocalDate to) {
+        return query(counters.byTechnician.get(VehicleService.TECHNICIANS.lookup(technicianName)), from, to);
+    }
+
+    /**
+     * Totals per service type between two dates, inclusive
+     */
+    public synchronized Map<String, Totals> byServiceType(LocalDate from, LocalDate to) {
+        return breakdown(counters.byServiceType, VehicleService.SERVICE_TYPES, from, to);
+    }
+
+    /**
+     * Totals per technician between two dates, inclusive
+     */
+    public synchronized Map<String, Totals> byTechnician(LocalDate from, LocalDate to) {
+        return breakdown(counters.byTechnician, VehicleService.TECHNICIANS, from, to);
+    }
+    /**
+     * Totals per day, week (Monday start) or month between two dates, inclusive
+     */
+    public synchronized List<Totals> report(LocalDate from, LocalDate to, Granularity granularity) {
+        List<Totals> buckets = new ArrayList<>();
+        LocalDate start = from;
+        while (!start.isAfter(to)) {
+            LocalDate end;
+            switch (granularity) {
+                case WEEK:
+                    end = start.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
+                    break;
+                case MONTH:
+                    end = start.with(TemporalAdjusters.lastDayOfMonth());
+                    break;
+                default:
+                    end = start;
+            }
+            if (end.isAfter(to)) {
+                end = to;
+            }
+            buckets.add(query(counters.total, start, end));
+            start = end.plusDays(1);
+        }
+        return buckets;
+    }
+
+    private Map<String, Totals> breakdown(Map<Integer, Series> series, StringDictionary dictionary,
+                                          LocalDate from, LocalDate to) {
+        Map<String, Totals> result = new TreeMap<>();
+        series.forEach((code, s) -> {
+            Totals totals = query(s, from, to);
+            if (totals.getJobCount() != 0) {
+                result.put(dictionary.decode(code), totals);
+            }
+        });
+        return result;
+    }
+
+    private Totals query(Series series, LocalDate from, LocalDate to) {
+        if (series == null) {
+            return new Totals(from, to, 0, 0);
+        }
+        long first = Math.max(from.toEpochDay() - MIN_EPOCH_DAY, 0);
+        long last = Math.min(to.toEpochDay() - MIN_EPOCH_DAY, WINDOW_DAYS - 1);
+        if (last < first) {
+            return new Totals(from, to, 0, 0);
+        }
+        long count = series.prefixCount((int) last) - series.prefixCount((int) first - 1);
+        long cents = series.prefixCents((int) last) - series.prefixCents((int) first - 1);
+        return new Totals(from, to, count, cents / 100.0);
+    }
+
+    private static boolean inWindow(long epochDay) {
+        return epochDay >= MIN_EPOCH_DAY && epochDay <= MAX_EPOCH_DAY;
+    }
+
+    private static long toCents(double cost) {
+        return Math.round(cost * 100);
+    }
+
+    /**
+     * Consistency check against a brute-force scan of the stored history
+     * Usage: MaintenanceRollup [records]
+     */
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        Random random = new Random(42);
+
+        System.out.println("RL Auto Shop - Maintenance Rollup Check");
+        System.out.println("=======================================\n");
+
+        VehicleService service = new VehicleService();
+        List<String> vehicleIds = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            vehicleIds.add(service.addVehicle("VIN" + i, "Honda", "Accord", 2015).getId());
+        }
+
+        List<MaintenanceRecord> batch = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            batch.add(randomRecord(vehicleIds.get(random.nextInt(vehicleIds.size())), random));
+        }
+        service.addMaintenanceRecords(batch);
+        verify("Bulk load", service, vehicleIds, random);
+
+        for (int i = 0; i < count / 10; i++) {
+            service.addMaintenanceRecord(randomRecord(vehicleIds.get(random.nextInt(vehicleIds.size())), random));
+        }
+        for (int i = 0; i < count / 10; i++) {
+            List<MaintenanceRecord> history = service.getMaintenanceHistory(
+                    vehicleIds.get(random.nextInt(vehicleIds.size())));
+            if (history.isEmpty()) {
+                continue;
+            }
+            MaintenanceRecord record = history.get(random.nextInt(history.size()));
+            MaintenanceRecord changes = randomRecord(record.getVehicleId(), random);
+            record.setServiceDate(changes.getServiceDate());
+            record.setServiceType(changes.getServiceType());
+            record.setCost(changes.getCost());
+            record.setTechnicianName(changes.getTechnicianName());
+        }
+        verify("Adds and edits", service, vehicleIds, random);
+
+        service.removeVehicle(vehicleIds.remove(0));
+        verify("Vehicle removed", service, vehicleIds, random);
+
+        service.rebuildRollup();
+        verify("Rebuild", service, vehicleIds, random);
+
+        System.out.println("\nRollup check complete.");
+    }
+
+    private static final String[] CHECK_SERVICE_TYPES = {"Oil Change", "Brake Inspection", "Tire Rotation", null};
+    private static final String[] CHECK_TECHNICIANS = {"Mike Johnson", "Sarah Smith", "Luis Ortega", null};
+
+    /**
+     * Record dated anywhere from 1890 to 2220, so some fall outside the bucketed window
+     */
+    private static MaintenanceRecord randomRecord(String vehicleId, Random random) {
+        MaintenanceRecord record = new MaintenanceRecord(vehicleId,
+                CHECK_SERVICE_TYPES[random.nextInt(CHECK_SERVICE_TYPES.length)]);
+        LocalDate date = LocalDate.of(1890, 1, 1).plusDays(random.nextInt(120_000));
+        record.setServiceDate(random.nextInt(100) == 0 ? null : DateUtils.toDate(date.atStartOfDay()));
+        record.setCost(random.nextInt(100_000) / 100.0);
+        record.setTechnicianName(CHECK_TECHNICIANS[random.nextInt(CHECK_TECHNICIANS.length)]);
+        return record;
+    }
+
+    private static void verify(String stage, VehicleService service, List<String> vehicleIds, Random random) {
+        List<MaintenanceRecord> history = new ArrayList<>();
+        vehicleIds.forEach(id -> history.addAll(service.getMaintenanceHistory(id)));
+        MaintenanceRollup rollup = service.getRollup();
+
+        long outsideCount = 0;
+        long outsideCents = 0;
+        for (MaintenanceRecord record : history) {
+            if (record.getServiceDate() != null && !inWindow(DateUtils.toEpochDay(record.getServiceDate()))) {
+                outsideCount++;
+                outsideCents += toCents(record.getCost());
+            }
+        }
+        check(stage + " unbucketed", outsideCount + ":" + outsideCents, key(rollup.getUnbucketed()));
+
+        int ranges = 200;
+        for (int i = 0; i < ranges; i++) {
+            LocalDate from = LocalDate.of(1880, 1, 1).plusDays(random.nextInt(130_000));
+            LocalDate to = from.plusDays(random.nextInt(i % 2 == 0 ? 60 : 60_000));
+            Map<String, String> byType = new TreeMap<>();
+            Map<String, String> byTechnician = new TreeMap<>();
+            rollup.byServiceType(from, to).forEach((type, totals) -> byType.put(type, key(totals)));
+            rollup.byTechnician(from, to).forEach((tech, totals) -> byTechnician.put(tech, key(totals)));
+            String range = stage + " " + from + ".." + to;
+            check(range + " total", bruteForce(history, from, to), key(rollup.total(from, to)));
+            check(range + " by service type", bruteForce(history, from, to, MaintenanceRecord::getServiceType),
+                    byType.toString());
+            check(range + " by technician", bruteForce(history, from, to, MaintenanceRecord::getTechnicianName),
+                    byTechnician.toString());
+        }
+        System.out.println(String.format("%-16s %6d records, %d ranges match a full scan",
+                stage + ":", history.size(), ranges));
+    }
+
+    private static String bruteForce(List<MaintenanceRecord> history, LocalDate from, LocalDate to) {
+        long count = 0;
+        long cents = 0;
+        for (MaintenanceRecord record : inRange(history, from, to)) {
+            count++;
+            cents += toCents(record.getCost());
+        }
+        return count + ":" + cents;
+    }
+
+    private static String bruteForce(List<MaintenanceRecord> history, LocalDate from, LocalDate to,
+                                     Function<MaintenanceRecord, String> groupBy) {
+        Map<String, long[]> groups = new TreeMap<>();
+        for (MaintenanceRecord record : inRange(history, from, to)) {
+            String group = groupBy.apply(record);
+            if (group != null) {
+                long[] sums = groups.computeIfAbsent(group, k -> new long[2]);
+                sums[0]++;
+                sums[1] += toCents(record.getCost());
+            }
+        }
+        Map<String, String> result = new TreeMap<>();
+        groups.forEach((group, sums) -> result.put(group, sums[0] + ":" + sums[1]));
+        return result.toString();
+    }
+
+    private static List<MaintenanceRecord> inRange(List<MaintenanceRecord> history, LocalDate from, LocalDate to) {
+        List<MaintenanceRecord> result = new ArrayList<>();
+        for (MaintenanceRecord record : history) {
+            if (record.getServiceDate() == null) {
+                continue;
+            }
+            long day = DateUtils.toEpochDay(record.getServiceDate());
+            if (inWindow(day) && day >= from.toEpochDay() && day <= to.toEpochDay()) {
+                result.add(record);
+            }
+        }
+        return result;
+    }
+
+    private static String key(Totals totals) {
+        return totals.getJobCount() + ":" + Math.round(totals.getRevenue() * 100);
+    }
+
+    private static void check(String what, String expected, String actual) {
+        if (!expected.equals(actual)) {
+            throw new IllegalStateException(what + ": expected " + expected + " but was " + actual);
+        }
+    }
+}
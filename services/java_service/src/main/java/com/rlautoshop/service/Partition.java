@@ -0,0 +1,88 @@
+package com.rlautoshop.service;
+
+import com.rlautoshop.service.CustomerManager.Customer;
+import com.rlautoshop.service.VehicleService.MaintenanceRecord;
+import com.rlautoshop.service.VehicleService.Vehicle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Partition - One shard of customers with their vehicles and maintenance history
+ * Implemented in-process by PartitionNode and over loopback by RemotePartition
+ * Entities passed in and returned are copies; use the update operations to change stored data
+ */
+public interface Partition {
+
+    /**
+     * A customer with everything co-located on their partition, used for rebalancing
+     */
+    class CustomerBundle {
+        private final Customer customer;
+        private final List<Vehicle> vehicles;
+        private final List<MaintenanceRecord> history;
+
+        public CustomerBundle(Customer customer, List<Vehicle> vehicles, List<MaintenanceRecord> history) {
+            this.customer = customer;
+            this.vehicles = new ArrayList<>(vehicles);
+            this.history = new ArrayList<>(history);
+        }
+
+        public Customer getCustomer() { return customer; }
+        public List<Vehicle> getVehicles() { return vehicles; }
+        public List<MaintenanceRecord> getHistory() { return history; }
+    }
+
+    String getName();
+
+    Customer addCustomer(Customer customer);
+
+    Optional<Customer> findCustomer(String customerId);
+
+    /**
+     * Copy name, email, phone and address from the given customer onto the stored one with the same id
+     */
+    boolean updateCustomer(Customer customer);
+
+    List<Customer> searchByName(String searchTerm);
+
+    /**
+     * Delete a customer along with their vehicles and history
+     */
+    boolean deleteCustomer(String customerId);
+
+    /**
+     * Add a vehicle for the customer named by its ownerId
+     */
+    Vehicle addVehicle(Vehicle vehicle);
+
+    List<Vehicle> getVehiclesByOwner(String ownerId);
+
+    /**
+     * Copy vin, make, model, year, color and mileage onto the stored vehicle with the same id
+     */
+    boolean updateVehicle(Vehicle vehicle);
+
+    List<Vehicle> findVehiclesNeedingService(int mileageThreshold);
+
+    MaintenanceRecord addMaintenanceRecord(MaintenanceRecord record);
+
+    List<MaintenanceRecord> getMaintenanceHistory(String vehicleId);
+
+    /**
+     * Copy date, type, description, cost, mileage and technician onto the stored record with the same id
+     */
+    boolean updateMaintenanceRecord(MaintenanceRecord record);
+
+    List<String> getCustomerIds();
+
+    /**
+     * Remove a customer and return everything stored for them
+     */
+    Optional<CustomerBundle> extract(String customerId);
+
+    /**
+     * Store a bundle previously extracted from another partition
+     */
+    void load(CustomerBundle bundle);
+}
@@ -0,0 +1,117 @@
+package com.rlautoshop.service;
+
+import com.rlautoshop.service.CustomerManager.Customer;
+import com.rlautoshop.service.VehicleService.MaintenanceRecord;
+import com.rlautoshop.service.VehicleService.Vehicle;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * PartitionBenchmark - Reports throughput and scaling efficiency from 1 to N partitions
+ * Weak scaling: each partition holds the same number of customers, so a run with N partitions
+ * stores N times the data and per-partition work stays constant as N grows
+ * Usage: PartitionBenchmark [maxPartitions] [customersPerPartition] [inprocess|loopback]
+ */
+public class PartitionBenchmark {
+
+    private static final String[] FIRST_NAMES = {"John", "Sarah", "Mike", "Emily", "Carlos", "Priya"};
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Davis", "Garcia", "Patel"};
+    private static final long RUN_MILLIS = 2000;
+
+    /**
+     * Run a mixed workload for a fixed time and return operations per second
+     * Every 50th operation is a scatter-gather query; the rest are routed lookups
+     */
+    static double measure(PartitionRouter router, List<String> customerIds, int threads) throws InterruptedException {
+        LongAdder operations = new LongAdder();
+        long deadline = System.currentTimeMillis() + RUN_MILLIS;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long count = 0;
+                while (System.currentTimeMillis() < deadline) {
+                    if (++count % 50 == 0) {
+                        router.searchByName(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]);
+                    } else {
+                        String id = customerIds.get(random.nextInt(customerIds.size()));
+                        router.findById(id);
+                        router.getVehiclesByOwner(id);
+                    }
+                    operations.increment();
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return operations.sum() * 1000.0 / RUN_MILLIS;
+    }
+
+    private static List<String> load(PartitionRouter router, int customers) {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < customers; i++) {
+            Customer customer = router.addCustomer(new Customer(FIRST_NAMES[i % FIRST_NAMES.length],
+                    LAST_NAMES[(i / FIRST_NAMES.length) % LAST_NAMES.length] + i, "customer" + i + "@email.com"));
+            ids.add(customer.getId());
+            for (int v = 0; v < 2; v++) {
+                Vehicle vehicle = new Vehicle("VIN" + i + "-" + v, "Honda", "Accord", 2010 + v);
+                vehicle.setMileage((i * 7919 + v * 104729) % 150000);
+                vehicle = router.addVehicle(customer.getId(), vehicle);
+                MaintenanceRecord record = new MaintenanceRecord(vehicle.getId(), "Oil Change");
+                record.setCost(45.99);
+                router.addMaintenanceRecord(customer.getId(), record);
+            }
+        }
+        return ids;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int maxPartitions = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int customersPerPartition = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+        boolean loopback = args.length > 2 && "loopback".equals(args[2]);
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+        System.out.println("RL Auto Shop - Partition Scaling Benchmark");
+        System.out.println("==========================================\n");
+        System.out.println("Customers per partition: " + customersPerPartition + ", client threads: " + threads
+                + ", transport: " + (loopback ? "loopback TCP" : "in-process") + "\n");
+        System.out.println(String.format("%-12s %14s %12s", "Partitions", "Ops/sec", "Efficiency"));
+
+        double baseline = 0;
+        for (int n = 1; n <= maxPartitions; n++) {
+            List<PartitionServer> servers = new ArrayList<>();
+            try (PartitionRouter router = new PartitionRouter()) {
+                for (int i = 1; i <= n; i++) {
+                    PartitionNode node = new PartitionNode("shop-" + i);
+                    if (loopback) {
+                        PartitionServer server = new PartitionServer(node, 0).start();
+                        servers.add(server);
+                        router.addPartition(new RemotePartition("127.0.0.1", server.getPort()));
+                    } else {
+                        router.addPartition(node);
+                    }
+                }
+                List<String> ids = load(router, customersPerPartition * n);
+                double throughput = measure(router, ids, threads);
+                if (n == 1) {
+                    baseline = throughput;
+                }
+                System.out.println(String.format("%-12d %14.0f %11.1f%%",
+                        n, throughput, 100.0 * throughput / (baseline * n)));
+            } finally {
+                servers.forEach(PartitionServer::close);
+            }
+        }
+
+        System.out.println("\nEfficiency is throughput(N) / (N x throughput(1)) with " + customersPerPartition
+                + " customers per partition.");
+        System.out.println("Every 50th operation scans all partitions, so the total data grows with N.");
+        System.out.println("\nPartition benchmark complete.");
+    }
+}
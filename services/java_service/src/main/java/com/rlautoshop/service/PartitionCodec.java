@@ -0,0 +1,69 @@
+package com.rlautoshop.service;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSerializer;
+import com.rlautoshop.service.CustomerManager.Address;
+import com.rlautoshop.service.VehicleService.MaintenanceRecord;
+import com.rlautoshop.service.VehicleService.Vehicle;
+import java.lang.reflect.Type;
+import java.util.Date;
+
+/**
+ * PartitionCodec - Wire format for entities sent between the router and remote partitions
+ * One compact JSON document per line; dates travel as epoch millis
+ */
+final class PartitionCodec {
+
+    static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(Date.class, (JsonSerializer<Date>) (d, type, ctx) -> new JsonPrimitive(d.getTime()))
+            .registerTypeAdapter(Date.class, (JsonDeserializer<Date>) (json, type, ctx) -> new Date(json.getAsLong()))
+            .registerTypeAdapter(Address.class, (JsonSerializer<Address>) (a, type, ctx) -> a.toJson())
+            .registerTypeAdapter(Address.class, (JsonDeserializer<Address>) (json, type, ctx) -> {
+                JsonObject o = json.getAsJsonObject();
+                return new Address(string(o, "street"), string(o, "city"), string(o, "state"), string(o, "zipCode"));
+            })
+            .registerTypeAdapter(Vehicle.class, (JsonSerializer<Vehicle>) (v, type, ctx) -> v.toJson())
+            .registerTypeAdapter(Vehicle.class, (JsonDeserializer<Vehicle>) (json, type, ctx) -> {
+                JsonObject o = json.getAsJsonObject();
+                Vehicle v = new Vehicle(string(o, "id"), string(o, "vin"), string(o, "make"),
+                        string(o, "model"), o.get("year").getAsInt());
+                v.setColor(string(o, "color"));
+                v.setMileage(o.get("mileage").getAsInt());
+                v.setOwnerId(string(o, "ownerId"));
+                return v;
+            })
+            .registerTypeAdapter(MaintenanceRecord.class,
+                    (JsonSerializer<MaintenanceRecord>) (r, type, ctx) -> r.toJson(ctx))
+            .registerTypeAdapter(MaintenanceRecord.class, (JsonDeserializer<MaintenanceRecord>) (json, type, ctx) -> {
+                JsonObject o = json.getAsJsonObject();
+                MaintenanceRecord r = new MaintenanceRecord(string(o, "id"), string(o, "vehicleId"),
+                        string(o, "serviceType"));
+                r.setServiceDate(o.has("serviceDate") ? new Date(o.get("serviceDate").getAsLong()) : null);
+                r.setDescription(string(o, "description"));
+                r.setCost(o.get("cost").getAsDouble());
+                r.setMileageAtService(o.get("mileageAtService").getAsInt());
+                r.setTechnicianName(string(o, "technicianName"));
+                return r;
+            })
+            .create();
+
+    private PartitionCodec() {
+    }
+
+    /**
+     * Deep copy through the wire format, so in-process partitions share nothing with callers
+     */
+    static <T> T copy(T value, Type type) {
+        return value == null ? null : GSON.fromJson(GSON.toJsonTree(value, type), type);
+    }
+
+    private static String string(JsonObject json, String name) {
+        JsonElement element = json.get(name);
+        return element == null || element.isJsonNull() ? null : element.getAsString();
+    }
+}
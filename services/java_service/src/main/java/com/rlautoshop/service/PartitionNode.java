@@ -0,0 +1,201 @@
+package com.rlautoshop.service;
+
+import com.google.gson.reflect.TypeToken;
+import com.rlautoshop.service.CustomerManager.Customer;
+import com.rlautoshop.service.VehicleService.MaintenanceRecord;
+import com.rlautoshop.service.VehicleService.Vehicle;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * PartitionNode - In-process partition backed by its own CustomerManager and VehicleService
+ * Methods are synchronized because the underlying services are not thread-safe, and entities
+ * are copied in and out so callers see the same semantics as with RemotePartition
+ */
+public class PartitionNode implements Partition {
+
+    private static final Type CUSTOMER_LIST = new TypeToken<List<Customer>>() {}.getType();
+    private static final Type VEHICLE_LIST = new TypeToken<List<Vehicle>>() {}.getType();
+    private static final Type RECORD_LIST = new TypeToken<List<MaintenanceRecord>>() {}.getType();
+
+    private final String name;
+    private final CustomerManager customers;
+    private final VehicleService vehicles;
+
+    public PartitionNode(String name) {
+        this.name = name;
+        this.customers = new CustomerManager();
+        this.vehicles = new VehicleService();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public synchronized Customer addCustomer(Customer customer) {
+        customers.addCustomer(copy(customer, Customer.class));
+        return customer;
+    }
+
+    @Override
+    public synchronized Optional<Customer> findCustomer(String customerId) {
+        return customers.findById(customerId).map(c -> copy(c, Customer.class));
+    }
+
+    @Override
+    public synchronized boolean updateCustomer(Customer customer) {
+        Optional<Customer> stored = customers.findById(customer.getId());
+        if (!stored.isPresent()) {
+            return false;
+        }
+        Customer target = stored.get();
+        target.setFirstName(customer.getFirstName());
+        target.setLastName(customer.getLastName());
+        target.setEmail(customer.getEmail());
+        target.setPhone(customer.getPhone());
+        target.setAddress(customer.getAddress());
+        return true;
+    }
+
+    @Override
+    public synchronized List<Customer> searchByName(String searchTerm) {
+        return copy(customers.searchByName(searchTerm), CUSTOMER_LIST);
+    }
+
+    @Override
+    public synchronized boolean deleteCustomer(String customerId) {
+        return extract(customerId).isPresent();
+    }
+
+    @Override
+    public synchronized Vehicle addVehicle(Vehicle vehicle) {
+        Customer owner = customers.findById(vehicle.getOwnerId())
+                .orElseThrow(() -> new IllegalArgumentException("Customer not found: " + vehicle.getOwnerId()));
+        vehicles.addVehicle(copy(vehicle, Vehicle.class));
+        owner.addVehicle(vehicle.getId());
+        return vehicle;
+    }
+
+    @Override
+    public synchronized List<Vehicle> getVehiclesByOwner(String ownerId) {
+        return copy(vehicles.getVehiclesByOwner(ownerId), VEHICLE_LIST);
+    }
+
+    @Override
+    public synchronized boolean updateVehicle(Vehicle vehicle) {
+        Optional<Vehicle> stored = vehicles.getVehicle(vehicle.getId());
+        if (!stored.isPresent()) {
+            return false;
+        }
+        Vehicle target = stored.get();
+        if (vehicle.getOwnerId() != null && !vehicle.getOwnerId().equals(target.getOwnerId())) {
+            throw new IllegalArgumentException("Vehicle owner cannot change through an update: " + vehicle.getId());
+        }
+        target.setVin(vehicle.getVin());
+        target.setMake(vehicle.getMake());
+        target.setModel(vehicle.getModel());
+        target.setYear(vehicle.getYear());
+        target.setColor(vehicle.getColor());
+        target.setMileage(vehicle.getMileage());
+        return true;
+    }
+
+    @Override
+    public synchronized List<Vehicle> findVehiclesNeedingService(int mileageThreshold) {
+        return copy(vehicles.findVehiclesNeedingService(mileageThreshold), VEHICLE_LIST);
+    }
+
+    @Override
+    public synchronized MaintenanceRecord addMaintenanceRecord(MaintenanceRecord record) {
+        vehicles.addMaintenanceRecord(copy(record, MaintenanceRecord.class));
+        return record;
+    }
+
+    @Override
+    public synchronized List<MaintenanceRecord> getMaintenanceHistory(String vehicleId) {
+        return copy(vehicles.getMaintenanceHistory(vehicleId), RECORD_LIST);
+    }
+
+    @Override
+    public synchronized boolean updateMaintenanceRecord(MaintenanceRecord record) {
+        Optional<MaintenanceRecord> stored = vehicles.getMaintenanceHistory(record.getVehicleId()).stream()
+                .filter(r -> r.getId().equals(record.getId()))
+                .findFirst();
+        if (!stored.isPresent()) {
+            return false;
+        }
+        MaintenanceRecord target = stored.get();
+        target.setServiceDate(record.getServiceDate());
+        target.setServiceType(record.getServiceType());
+        target.setDescription(record.getDescription());
+        target.setCost(record.getCost());
+        target.setMileageAtService(record.getMileageAtService());
+        target.setTechnicianName(record.getTechnicianName());
+        return true;
+    }
+
+    @Override
+    public synchronized List<String> getCustomerIds() {
+        return customers.getAllCustomers().stream()
+                .map(Customer::getId)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public synchronized Optional<CustomerBundle> extract(String customerId) {
+        Optional<Customer> customer = customers.findById(customerId);
+        if (!customer.isPresent()) {
+            return Optional.empty();
+        }
+        List<Vehicle> owned = vehicles.getVehiclesByOwner(customerId);
+        List<MaintenanceRecord> history = new ArrayList<>();
+        for (Vehicle vehicle : owned) {
+            history.addAll(vehicles.getMaintenanceHistory(vehicle.getId()));
+            vehicles.removeVehicle(vehicle.getId());
+        }
+        customers.deleteCustomer(customerId);
+        // The extracted entities are no longer stored here, so they can be handed out as they are
+        return Optional.of(new CustomerBundle(customer.get(), owned, history));
+    }
+
+    @Override
+    public synchronized void load(CustomerBundle bundle) {
+        // Validate everything first so a rejected bundle leaves nothing behind
+        CustomerBundle copy = copy(bundle, CustomerBundle.class);
+        String customerId = copy.getCustomer().getId();
+        if (customers.findById(customerId).isPresent()) {
+            throw new IllegalArgumentException("Customer already stored: " + customerId);
+        }
+        List<String> vehicleIds = new ArrayList<>();
+        for (Vehicle vehicle : copy.getVehicles()) {
+            if (!customerId.equals(vehicle.getOwnerId()) || vehicles.getVehicle(vehicle.getId()).isPresent()) {
+                throw new IllegalArgumentException("Vehicle cannot be loaded for " + customerId + ": " + vehicle.getId());
+            }
+            vehicleIds.add(vehicle.getId());
+        }
+        for (MaintenanceRecord record : copy.getHistory()) {
+            if (!vehicleIds.contains(record.getVehicleId())) {
+                throw new IllegalArgumentException("Record for a vehicle outside the bundle: " + record.getId());
+            }
+        }
+        customers.addCustomer(copy.getCustomer());
+        copy.getVehicles().forEach(vehicles::addVehicle);
+        vehicles.addMaintenanceRecords(copy.getHistory());
+    }
+
+    private static <T> T copy(T value, Type type) {
+        return PartitionCodec.copy(value, type);
+    }
+
+    /**
+     * Number of customers stored on this partition
+     */
+    public synchronized int size() {
+        return customers.getAllCustomers().size();
+    }
+}
@@ -0,0 +1,391 @@
+package com.rlautoshop.service;
+
+import com.rlautoshop.service.CustomerManager.Customer;
+import com.rlautoshop.service.Partition.CustomerBundle;
+import com.rlautoshop.service.VehicleService.MaintenanceRecord;
+import com.rlautoshop.service.VehicleService.Vehicle;
+import com.rlautoshop.util.ConsistentHashRing;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * PartitionRouter - Routes customer, vehicle and history operations to hash partitions
+ * Customers are placed by consistent hashing on their id; vehicles and history live with their owner
+ */
+public class PartitionRouter implements AutoCloseable {
+
+    /** Default virtual nodes per partition on the hash ring */
+    public static final int DEFAULT_VIRTUAL_NODES = 128;
+
+    private final ConsistentHashRing<Partition> ring;
+    private final ReadWriteLock lock;
+    private final ExecutorService scatterPool;
+
+    public PartitionRouter() {
+        this(DEFAULT_VIRTUAL_NODES);
+    }
+
+    public PartitionRouter(int virtualNodes) {
+        this.ring = new ConsistentHashRing<>(virtualNodes);
+        this.lock = new ReentrantReadWriteLock();
+        this.scatterPool = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "partition-scatter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * A customer relocated during rebalancing, kept so a failed rebalance can move it back
+     */
+    private static final class Move {
+        private final String customerId;
+        private final Partition from;
+        private final Partition to;
+
+        Move(String customerId, Partition from, Partition to) {
+            this.customerId = customerId;
+            this.from = from;
+            this.to = to;
+        }
+    }
+
+    /**
+     * Add a partition and move the customers it now owns onto it
+     * If a move fails the partition is taken off the ring again and moved customers go back
+     * Returns the number of customers moved
+     */
+    public int addPartition(Partition partition) {
+        lock.writeLock().lock();
+        try {
+            ring.add(partition.getName(), partition);
+            List<Move> moves = new ArrayList<>();
+            try {
+                for (Partition source : ring.getNodes()) {
+                    if (source != partition) {
+                        moveMisplaced(source, moves);
+                    }
+                }
+            } catch (RuntimeException e) {
+                ring.remove(partition.getName());
+                undo(moves, e);
+                throw e;
+            }
+            return moves.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a partition after moving all of its customers to their new owners, then close it
+     * If a move fails the partition is put back on the ring and moved customers go back
+     * Returns the number of customers moved
+     */
+    public int removePartition(String name) {
+        lock.writeLock().lock();
+        try {
+            Partition partition = ring.get(name);
+            if (partition == null) {
+                throw new IllegalArgumentException("Partition not found: " + name);
+            }
+            if (ring.size() == 1 && !partition.getCustomerIds().isEmpty()) {
+                throw new IllegalStateException("Cannot remove the last partition while it stores customers: " + name);
+            }
+            ring.remove(name);
+            List<Move> moves = new ArrayList<>();
+            try {
+                moveMisplaced(partition, moves);
+            } catch (RuntimeException e) {
+                ring.add(name, partition);
+                undo(moves, e);
+                throw e;
+            }
+            closeQuietly(partition);
+            return moves.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Move every customer on a partition that the ring now assigns elsewhere
+     */
+    private void moveMisplaced(Partition source, List<Move> moves) {
+        for (String customerId : source.getCustomerIds()) {
+            Partition target = ring.nodeFor(customerId);
+            if (target != source && transfer(customerId, source, target)) {
+                moves.add(new Move(customerId, source, target));
+            }
+        }
+    }
+
+    /**
+     * Move customers back to where they were before a failed rebalance, newest first
+     * Customers that cannot be moved back are reported as suppressed exceptions on the failure
+     */
+    private void undo(List<Move> moves, RuntimeException failure) {
+        for (int i = moves.size() - 1; i >= 0; i--) {
+            Move move = moves.get(i);
+            try {
+                transfer(move.customerId, move.to, move.from);
+            } catch (RuntimeException e) {
+                failure.addSuppressed(new IllegalStateException("Customer " + move.customerId + " left on "
+                        + move.to.getName() + " instead of " + move.from.getName() + " after a failed rebalance", e));
+            }
+        }
+    }
+
+    /**
+     * Move one customer between partitions; if loading fails the customer is put back on the source
+     * If restoring fails too, the bundle is logged and attached to the failure so it can be reloaded
+     */
+    private static boolean transfer(String customerId, Partition source, Partition target) {
+        Optional<CustomerBundle> bundle = source.extract(customerId);
+        if (!bundle.isPresent()) {
+            return false;
+        }
+        try {
+            target.load(bundle.get());
+            return true;
+        } catch (RuntimeException e) {
+            // load rejects a bundle with IllegalArgumentException before storing anything;
+            // any other failure may have left part of it on the target
+            if (!(e instanceof IllegalArgumentException)) {
+                try {
+                    target.extract(customerId);
+                } catch (RuntimeException cleanup) {
+                    e.addSuppressed(cleanup);
+                }
+            }
+            try {
+                source.load(bundle.get());
+            } catch (RuntimeException restore) {
+                String json = PartitionCodec.GSON.toJson(bundle.get());
+                System.err.println("Customer " + customerId + " could not be restored on " + source.getName()
+                        + ": " + json);
+                e.addSuppressed(new IllegalStateException("Customer " + customerId + " is not stored on any partition;"
+                        + " bundle: " + json, restore));
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Get the partition owning a customer
+     */
+    public Partition partitionFor(String customerId) {
+        lock.readLock().lock();
+        try {
+            return ring.nodeFor(customerId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Partition> getPartitions() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(ring.getNodes());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Customer addCustomer(Customer customer) {
+        return routed(customer.getId(), p -> p.addCustomer(customer));
+    }
+
+    public Optional<Customer> findById(String customerId) {
+        return routed(customerId, p -> p.findCustomer(customerId));
+    }
+
+    /**
+     * Store the name, email, phone and address of the given customer snapshot
+     */
+    public boolean updateCustomer(Customer customer) {
+        return routed(customer.getId(), p -> p.updateCustomer(customer));
+    }
+
+    public boolean deleteCustomer(String customerId) {
+        return routed(customerId, p -> p.deleteCustomer(customerId));
+    }
+
+    /**
+     * Search customers by name on every partition
+     */
+    public List<Customer> searchByName(String searchTerm) {
+        return scatter(p -> p.searchByName(searchTerm));
+    }
+
+    /**
+     * Add a vehicle on its owner's partition
+     */
+    public Vehicle addVehicle(String ownerId, Vehicle vehicle) {
+        vehicle.setOwnerId(ownerId);
+        return routed(ownerId, p -> p.addVehicle(vehicle));
+    }
+
+    public List<Vehicle> getVehiclesByOwner(String ownerId) {
+        return routed(ownerId, p -> p.getVehiclesByOwner(ownerId));
+    }
+
+    /**
+     * Store the details and mileage of the given vehicle snapshot on its owner's partition
+     */
+    public boolean updateVehicle(Vehicle vehicle) {
+        if (vehicle.getOwnerId() == null) {
+            throw new IllegalArgumentException("Vehicle has no owner: " + vehicle.getId());
+        }
+        return routed(vehicle.getOwnerId(), p -> p.updateVehicle(vehicle));
+    }
+
+    /**
+     * Find high-mileage vehicles on every partition
+     */
+    public List<Vehicle> findVehiclesNeedingService(int mileageThreshold) {
+        return scatter(p -> p.findVehiclesNeedingService(mileageThreshold));
+    }
+
+    /**
+     * Add a maintenance record on the vehicle owner's partition
+     */
+    public MaintenanceRecord addMaintenanceRecord(String ownerId, MaintenanceRecord record) {
+        return routed(ownerId, p -> p.addMaintenanceRecord(record));
+    }
+
+    public List<MaintenanceRecord> getMaintenanceHistory(String ownerId, String vehicleId) {
+        return routed(ownerId, p -> p.getMaintenanceHistory(vehicleId));
+    }
+
+    /**
+     * Store the fields of the given maintenance record snapshot on the vehicle owner's partition
+     */
+    public boolean updateMaintenanceRecord(String ownerId, MaintenanceRecord record) {
+        return routed(ownerId, p -> p.updateMaintenanceRecord(record));
+    }
+
+    private <T> T routed(String customerId, Function<Partition, T> operation) {
+        lock.readLock().lock();
+        try {
+            return operation.apply(ring.nodeFor(customerId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Run a query on all partitions in parallel and concatenate the results
+     */
+    private <T> List<T> scatter(Function<Partition, List<T>> query) {
+        lock.readLock().lock();
+        try {
+            List<CompletableFuture<List<T>>> futures = ring.getNodes().stream()
+                    .map(p -> CompletableFuture.supplyAsync(() -> query.apply(p), scatterPool))
+                    .collect(Collectors.toList());
+            List<T> results = new ArrayList<>();
+            for (CompletableFuture<List<T>> future : futures) {
+                try {
+                    results.addAll(future.join());
+                } catch (CompletionException e) {
+                    throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+                }
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Stop the scatter pool and close every partition that holds a connection
+     */
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            ring.getNodes().forEach(PartitionRouter::closeQuietly);
+        } finally {
+            lock.writeLock().unlock();
+            scatterPool.shutdownNow();
+        }
+    }
+
+    private static void closeQuietly(Partition partition) {
+        if (partition instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) partition).close();
+            } catch (Exception e) {
+                System.err.println("Failed to close partition " + partition.getName() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Demo execution
+     */
+    public static void main(String[] args) throws IOException {
+        System.out.println("RL Auto Shop - Partitioned Services");
+        System.out.println("===================================\n");
+
+        List<PartitionServer> servers = new ArrayList<>();
+        try (PartitionRouter router = new PartitionRouter()) {
+            for (int i = 1; i <= 3; i++) {
+                PartitionServer server = new PartitionServer(new PartitionNode("shop-" + i), 0).start();
+                servers.add(server);
+                router.addPartition(new RemotePartition("127.0.0.1", server.getPort()));
+            }
+            System.out.println("Started " + servers.size() + " partitions over loopback\n");
+
+            String[][] names = {{"John", "Smith"}, {"Sarah", "Johnson"}, {"Mike", "Williams"},
+                    {"Emily", "Davis"}, {"Carlos", "Garcia"}, {"Priya", "Patel"}};
+            for (int i = 0; i < names.length; i++) {
+                Customer customer = router.addCustomer(new Customer(names[i][0], names[i][1],
+                        names[i][0].toLowerCase() + "@email.com"));
+                Vehicle vehicle = new Vehicle("VIN" + i, "Honda", "Accord", 2015 + i);
+                vehicle.setMileage(20000 * (i + 1));
+                vehicle = router.addVehicle(customer.getId(), vehicle);
+                MaintenanceRecord record = new MaintenanceRecord(vehicle.getId(), "Oil Change");
+                record.setCost(45.99);
+                router.addMaintenanceRecord(customer.getId(), record);
+            }
+
+            printDistribution(router);
+
+            System.out.println("Search results for 'son':");
+            router.searchByName("son").forEach(c -> System.out.println("  - " + c.getFullName()));
+            System.out.println("Vehicles with high mileage (>60,000):");
+            router.findVehiclesNeedingService(60000).forEach(v -> System.out.println("  - "
+                    + v.getDisplayName() + " (" + v.getMileage() + " miles)"));
+            System.out.println();
+
+            PartitionServer added = new PartitionServer(new PartitionNode("shop-4"), 0).start();
+            servers.add(added);
+            int moved = router.addPartition(new RemotePartition("127.0.0.1", added.getPort()));
+            System.out.println("Added shop-4, moved " + moved + " customers");
+            printDistribution(router);
+        } finally {
+            servers.forEach(PartitionServer::close);
+        }
+
+        System.out.println("Partitioning demonstration complete.");
+    }
+
+    private static void printDistribution(PartitionRouter router) {
+        for (Partition partition : router.getPartitions()) {
+            System.out.println("  " + partition.getName() + ": "
+                    + partition.getCustomerIds().size() + " customers");
+        }
+        System.out.println();
+    }
+}
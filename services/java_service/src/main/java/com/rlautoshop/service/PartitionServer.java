@@ -0,0 +1,177 @@
+package com.rlautoshop.service;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.rlautoshop.service.CustomerManager.Customer;
+import com.rlautoshop.service.Partition.CustomerBundle;
+import com.rlautoshop.service.VehicleService.MaintenanceRecord;
+import com.rlautoshop.service.VehicleService.Vehicle;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * PartitionServer - Serves a PartitionNode over loopback TCP
+ * Each request and response is one JSON line; see RemotePartition for the client side
+ */
+public class PartitionServer implements AutoCloseable {
+
+    private final PartitionNode node;
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections;
+
+    public PartitionServer(PartitionNode node, int port) throws IOException {
+        this.node = node;
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.connections = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "partition-" + node.getName());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Start accepting connections in the background
+     */
+    public PartitionServer start() {
+        connections.execute(() -> {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    connections.execute(() -> serve(socket));
+                } catch (IOException e) {
+                    if (!serverSocket.isClosed()) {
+                        System.err.println("Partition " + node.getName() + " accept failed: " + e.getMessage());
+                    }
+                }
+            }
+        });
+        return this;
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public PartitionNode getNode() {
+        return node;
+    }
+
+    private void serve(Socket socket) {
+        try (Socket s = socket;
+             BufferedReader in = new BufferedReader(
+                     new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(
+                     new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8))) {
+            s.setTcpNoDelay(true);
+            String line;
+            while ((line = in.readLine()) != null) {
+                out.println(handle(line));
+                out.flush();
+            }
+        } catch (IOException e) {
+            if (!serverSocket.isClosed()) {
+                System.err.println("Partition " + node.getName() + " connection closed: " + e.getMessage());
+            }
+        }
+    }
+
+    private String handle(String line) {
+        JsonObject response = new JsonObject();
+        try {
+            JsonObject request = JsonParser.parseString(line).getAsJsonObject();
+            response.add("result", dispatch(request.get("op").getAsString(), request.getAsJsonArray("args")));
+            response.addProperty("ok", true);
+        } catch (RuntimeException e) {
+            response.addProperty("ok", false);
+            response.addProperty("errorType", e.getClass().getSimpleName());
+            response.addProperty("error", e.getMessage());
+        }
+        return PartitionCodec.GSON.toJson(response);
+    }
+
+    private JsonElement dispatch(String op, JsonArray args) {
+        switch (op) {
+            case "getName":
+                return encode(node.getName());
+            case "addCustomer":
+                return encode(node.addCustomer(decode(args, 0, Customer.class)));
+            case "findCustomer":
+                return encode(node.findCustomer(args.get(0).getAsString()).orElse(null));
+            case "updateCustomer":
+                return encode(node.updateCustomer(decode(args, 0, Customer.class)));
+            case "searchByName":
+                return encode(node.searchByName(args.get(0).getAsString()));
+            case "deleteCustomer":
+                return encode(node.deleteCustomer(args.get(0).getAsString()));
+            case "addVehicle":
+                return encode(node.addVehicle(decode(args, 0, Vehicle.class)));
+            case "getVehiclesByOwner":
+                return encode(node.getVehiclesByOwner(args.get(0).getAsString()));
+            case "updateVehicle":
+                return encode(node.updateVehicle(decode(args, 0, Vehicle.class)));
+            case "findVehiclesNeedingService":
+                return encode(node.findVehiclesNeedingService(args.get(0).getAsInt()));
+            case "addMaintenanceRecord":
+                return encode(node.addMaintenanceRecord(decode(args, 0, MaintenanceRecord.class)));
+            case "getMaintenanceHistory":
+                return encode(node.getMaintenanceHistory(args.get(0).getAsString()));
+            case "updateMaintenanceRecord":
+                return encode(node.updateMaintenanceRecord(decode(args, 0, MaintenanceRecord.class)));
+            case "getCustomerIds":
+                return encode(node.getCustomerIds());
+            case "extract":
+                return encode(node.extract(args.get(0).getAsString()).orElse(null));
+            case "load":
+                node.load(decode(args, 0, CustomerBundle.class));
+                return encode(true);
+            default:
+                throw new IllegalArgumentException("Unknown operation: " + op);
+        }
+    }
+
+    private static JsonElement encode(Object value) {
+        return PartitionCodec.GSON.toJsonTree(value);
+    }
+
+    private static <T> T decode(JsonArray args, int index, Class<T> type) {
+        return PartitionCodec.GSON.fromJson(args.get(index), type);
+    }
+
+    @Override
+    public void close() {
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            connections.shutdownNow();
+        }
+    }
+
+    /**
+     * Run a single partition as its own process
+     * Usage: PartitionServer <name> <port>
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.err.println("Usage: PartitionServer <name> <port>");
+            System.exit(1);
+        }
+        PartitionServer server = new PartitionServer(new PartitionNode(args[0]), Integer.parseInt(args[1])).start();
+        System.out.println("Partition " + args[0] + " listening on 127.0.0.1:" + server.getPort());
+        // Connection threads are daemons, so keep the process alive until it is killed
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,166 @@
+package com.rlautoshop.service;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+import com.rlautoshop.service.CustomerManager.Customer;
+import com.rlautoshop.service.VehicleService.MaintenanceRecord;
+import com.rlautoshop.service.VehicleService.Vehicle;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * RemotePartition - Client for a partition served by PartitionServer
+ * Holds one connection; calls are serialized per partition
+ */
+public class RemotePartition implements Partition, AutoCloseable {
+
+    private static final Type CUSTOMER_LIST = new TypeToken<List<Customer>>() {}.getType();
+    private static final Type VEHICLE_LIST = new TypeToken<List<Vehicle>>() {}.getType();
+    private static final Type RECORD_LIST = new TypeToken<List<MaintenanceRecord>>() {}.getType();
+    private static final Type STRING_LIST = new TypeToken<List<String>>() {}.getType();
+
+    private final Socket socket;
+    private final BufferedReader in;
+    private final PrintWriter out;
+    private final String name;
+
+    public RemotePartition(String host, int port) throws IOException {
+        this.socket = new Socket(host, port);
+        this.socket.setTcpNoDelay(true);
+        this.in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        this.out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+        this.name = call("getName").getAsString();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Customer addCustomer(Customer customer) {
+        return decode(call("addCustomer", customer), Customer.class);
+    }
+
+    @Override
+    public Optional<Customer> findCustomer(String customerId) {
+        return Optional.ofNullable(decode(call("findCustomer", customerId), Customer.class));
+    }
+
+    @Override
+    public boolean updateCustomer(Customer customer) {
+        return call("updateCustomer", customer).getAsBoolean();
+    }
+
+    @Override
+    public List<Customer> searchByName(String searchTerm) {
+        return decode(call("searchByName", searchTerm), CUSTOMER_LIST);
+    }
+
+    @Override
+    public boolean deleteCustomer(String customerId) {
+        return call("deleteCustomer", customerId).getAsBoolean();
+    }
+
+    @Override
+    public Vehicle addVehicle(Vehicle vehicle) {
+        return decode(call("addVehicle", vehicle), Vehicle.class);
+    }
+
+    @Override
+    public List<Vehicle> getVehiclesByOwner(String ownerId) {
+        return decode(call("getVehiclesByOwner", ownerId), VEHICLE_LIST);
+    }
+
+    @Override
+    public boolean updateVehicle(Vehicle vehicle) {
+        return call("updateVehicle", vehicle).getAsBoolean();
+    }
+
+    @Override
+    public List<Vehicle> findVehiclesNeedingService(int mileageThreshold) {
+        return decode(call("findVehiclesNeedingService", mileageThreshold), VEHICLE_LIST);
+    }
+
+    @Override
+    public MaintenanceRecord addMaintenanceRecord(MaintenanceRecord record) {
+        return decode(call("addMaintenanceRecord", record), MaintenanceRecord.class);
+    }
+
+    @Override
+    public List<MaintenanceRecord> getMaintenanceHistory(String vehicleId) {
+        return decode(call("getMaintenanceHistory", vehicleId), RECORD_LIST);
+    }
+
+    @Override
+    public boolean updateMaintenanceRecord(MaintenanceRecord record) {
+        return call("updateMaintenanceRecord", record).getAsBoolean();
+    }
+
+    @Override
+    public List<String> getCustomerIds() {
+        return decode(call("getCustomerIds"), STRING_LIST);
+    }
+
+    @Override
+    public Optional<CustomerBundle> extract(String customerId) {
+        return Optional.ofNullable(decode(call("extract", customerId), CustomerBundle.class));
+    }
+
+    @Override
+    public void load(CustomerBundle bundle) {
+        call("load", bundle);
+    }
+
+    private synchronized JsonElement call(String op, Object... args) {
+        JsonObject request = new JsonObject();
+        request.addProperty("op", op);
+        JsonArray encoded = new JsonArray();
+        for (Object arg : args) {
+            encoded.add(PartitionCodec.GSON.toJsonTree(arg));
+        }
+        request.add("args", encoded);
+        out.println(PartitionCodec.GSON.toJson(request));
+        out.flush();
+
+        String line;
+        try {
+            line = in.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Partition " + name + " unreachable", e);
+        }
+        if (line == null) {
+            throw new UncheckedIOException(new IOException("Partition " + name + " closed the connection"));
+        }
+        JsonObject response = JsonParser.parseString(line).getAsJsonObject();
+        if (!response.get("ok").getAsBoolean()) {
+            String message = response.has("error") ? response.get("error").getAsString() : null;
+            if ("IllegalArgumentException".equals(response.get("errorType").getAsString())) {
+                throw new IllegalArgumentException(message);
+            }
+            throw new IllegalStateException("Partition " + name + " failed: " + message);
+        }
+        return response.get("result");
+    }
+
+    private static <T> T decode(JsonElement json, Type type) {
+        return PartitionCodec.GSON.fromJson(json, type);
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
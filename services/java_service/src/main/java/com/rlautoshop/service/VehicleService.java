@@ -2,7 +2,13 @@ package com.rlautoshop.service;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSerializationContext;
+import com.google.gson.JsonSerializer;
+import com.rlautoshop.util.StringDictionary;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
 /**
@@ -11,75 +17,148 @@ import java.util.stream.Collectors;
  */
 public class VehicleService {
     
-    private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    /** Shared dictionaries for repetitive vehicle and service values */
+    public static final StringDictionary MAKES = new StringDictionary("makes");
+    public static final StringDictionary MODELS = new StringDictionary("models");
+    public static final StringDictionary COLORS = new StringDictionary("colors");
+    public static final StringDictionary SERVICE_TYPES = new StringDictionary("serviceTypes");
+    public static final StringDictionary TECHNICIANS = new StringDictionary("technicians");
+    
+    /** Smallest batch for which a bulk load rebuilds the rollup instead of adding per record */
+    static final int BULK_REBUILD_MIN = 1000;
+    
+    private static final Gson gson = new GsonBuilder()
+            .registerTypeAdapter(Vehicle.class, (JsonSerializer<Vehicle>) (v, type, ctx) -> v.toJson())
+            .registerTypeAdapter(MaintenanceRecord.class,
+                    (JsonSerializer<MaintenanceRecord>) (r, type, ctx) -> r.toJson(ctx))
+            .setPrettyPrinting()
+            .create();
     private Map<String, Vehicle> vehicles;
     private Map<String, List<MaintenanceRecord>> maintenanceHistory;
+    private final MaintenanceRollup rollup;
+    private final List<VehicleListener> listeners;
+    private int recordCount;
     
     public VehicleService() {
         this.vehicles = new HashMap<>();
         this.maintenanceHistory = new HashMap<>();
+        this.rollup = new MaintenanceRollup();
+        this.listeners = new CopyOnWriteArrayList<>();
+    }
+    
+    /**
+     * Notified after a stored vehicle, its owner or its maintenance history changes
+     */
+    public interface VehicleListener {
+        /**
+         * previousOwnerId equals the current owner unless the change moved the vehicle
+         */
+        void vehicleChanged(Vehicle vehicle, String previousOwnerId);
+        void vehicleRemoved(Vehicle vehicle);
     }
     
     /**
      * Vehicle entity
+     * Make, model and color are stored as codes against the shared dictionaries
      */
     public static class Vehicle {
         private final String id;
         private String vin;
-        private String make;
-        private String model;
+        private int makeCode;
+        private int modelCode;
         private int year;
-        private String color;
+        private int colorCode = StringDictionary.NULL_CODE;
         private int mileage;
         private String ownerId;
+        private transient VehicleService service;
         
         public Vehicle(String vin, String make, String model, int year) {
-            this.id = UUID.randomUUID().toString();
+            this(UUID.randomUUID().toString(), vin, make, model, year);
+        }
+        
+        Vehicle(String id, String vin, String make, String model, int year) {
+            this.id = id;
             this.vin = vin;
-            this.make = make;
-            this.model = model;
+            this.makeCode = MAKES.encode(make);
+            this.modelCode = MODELS.encode(model);
             this.year = year;
         }
         
         // Getters and setters
         public String getId() { return id; }
         public String getVin() { return vin; }
-        public void setVin(String vin) { this.vin = vin; }
-        public String getMake() { return make; }
-        public void setMake(String make) { this.make = make; }
-        public String getModel() { return model; }
-        public void setModel(String model) { this.model = model; }
+        public void setVin(String vin) { this.vin = vin; changed(ownerId); }
+        public String getMake() { return MAKES.decode(makeCode); }
+        public void setMake(String make) { this.makeCode = MAKES.encode(make); changed(ownerId); }
+        public int getMakeCode() { return makeCode; }
+        public String getModel() { return MODELS.decode(modelCode); }
+        public void setModel(String model) { this.modelCode = MODELS.encode(model); changed(ownerId); }
+        public int getModelCode() { return modelCode; }
         public int getYear() { return year; }
-        public void setYear(int year) { this.year = year; }
-        public String getColor() { return color; }
-        public void setColor(String color) { this.color = color; }
+        public void setYear(int year) { this.year = year; changed(ownerId); }
+        public String getColor() { return COLORS.decode(colorCode); }
+        public void setColor(String color) { this.colorCode = COLORS.encode(color); changed(ownerId); }
         public int getMileage() { return mileage; }
-        public void setMileage(int mileage) { this.mileage = mileage; }
+        public void setMileage(int mileage) { this.mileage = mileage; changed(ownerId); }
         public String getOwnerId() { return ownerId; }
-        public void setOwnerId(String ownerId) { this.ownerId = ownerId; }
+        public void setOwnerId(String ownerId) {
+            String previous = this.ownerId;
+            this.ownerId = ownerId;
+            changed(previous);
+        }
         
         public String getDisplayName() {
-            return year + " " + make + " " + model;
+            return year + " " + getMake() + " " + getModel();
+        }
+        
+        JsonObject toJson() {
+            JsonObject json = new JsonObject();
+            json.addProperty("id", id);
+            json.addProperty("vin", vin);
+            json.addProperty("make", getMake());
+            json.addProperty("model", getModel());
+            json.addProperty("year", year);
+            json.addProperty("color", getColor());
+            json.addProperty("mileage", mileage);
+            json.addProperty("ownerId", ownerId);
+            return json;
+        }
+        
+        void attach(VehicleService service) {
+            this.service = service;
+        }
+        
+        private void changed(String previousOwnerId) {
+            VehicleService owner = service;
+            if (owner != null) {
+                owner.vehicleChanged(this, previousOwnerId);
+            }
         }
     }
     
     /**
      * Maintenance record
+     * Service type and technician are stored as codes against the shared dictionaries
      */
     public static class MaintenanceRecord {
         private final String id;
         private final String vehicleId;
         private Date serviceDate;
-        private String serviceType;
+        private int serviceTypeCode;
         private String description;
         private double cost;
         private int mileageAtService;
-        private String technicianName;
+        private int technicianCode = StringDictionary.NULL_CODE;
+        private transient VehicleService service;
         
         public MaintenanceRecord(String vehicleId, String serviceType) {
-            this.id = UUID.randomUUID().toString();
+            this(UUID.randomUUID().toString(), vehicleId, serviceType);
+        }
+        
+        MaintenanceRecord(String id, String vehicleId, String serviceType) {
+            this.id = id;
             this.vehicleId = vehicleId;
-            this.serviceType = serviceType;
+            this.serviceTypeCode = SERVICE_TYPES.encode(serviceType);
             this.serviceDate = new Date();
         }
         
@@ -87,29 +166,111 @@ public class VehicleService {
         public String getId() { return id; }
         public String getVehicleId() { return vehicleId; }
         public Date getServiceDate() { return serviceDate; }
-        public void setServiceDate(Date serviceDate) { this.serviceDate = serviceDate; }
-        public String getServiceType() { return serviceType; }
-        public void setServiceType(String serviceType) { this.serviceType = serviceType; }
+        public void setServiceDate(Date serviceDate) { update(() -> this.serviceDate = serviceDate); }
+        public String getServiceType() { return SERVICE_TYPES.decode(serviceTypeCode); }
+        public void setServiceType(String serviceType) {
+            update(() -> this.serviceTypeCode = SERVICE_TYPES.encode(serviceType));
+        }
+        public int getServiceTypeCode() { return serviceTypeCode; }
         public String getDescription() { return description; }
-        public void setDescription(String description) { this.description = description; }
+        public void setDescription(String description) { this.description = description; changed(); }
         public double getCost() { return cost; }
-        public void setCost(double cost) { this.cost = cost; }
+        public void setCost(double cost) { update(() -> this.cost = cost); }
         public int getMileageAtService() { return mileageAtService; }
-        public void setMileageAtService(int mileageAtService) { this.mileageAtService = mileageAtService; }
-        public String getTechnicianName() { return technicianName; }
-        public void setTechnicianName(String technicianName) { this.technicianName = technicianName; }
+        public void setMileageAtService(int mileageAtService) {
+            this.mileageAtService = mileageAtService;
+            changed();
+        }
+        public String getTechnicianName() { return TECHNICIANS.decode(technicianCode); }
+        public void setTechnicianName(String technicianName) {
+            update(() -> this.technicianCode = TECHNICIANS.encode(technicianName));
+        }
+        public int getTechnicianCode() { return technicianCode; }
+        
+        void attach(VehicleService service) {
+            this.service = service;
+        }
+        
+        /**
+         * Apply a change to a rolled-up field, moving the record between buckets
+         * The record is re-counted even if the change fails, so the rollup never loses it
+         */
+        private void update(Runnable change) {
+            VehicleService owner = service;
+            if (owner == null) {
+                change.run();
+                return;
+            }
+            owner.recordChanging(this);
+            try {
+                change.run();
+            } finally {
+                owner.recordChanged(this);
+            }
+        }
+        
+        /**
+         * Report a change to a field the rollup does not track
+         */
+        private void changed() {
+            VehicleService owner = service;
+            if (owner != null) {
+                owner.historyChanged(vehicleId);
+            }
+        }
+        
+        JsonObject toJson(JsonSerializationContext ctx) {
+            JsonObject json = new JsonObject();
+            json.addProperty("id", id);
+            json.addProperty("vehicleId", vehicleId);
+            json.add("serviceDate", ctx.serialize(serviceDate));
+            json.addProperty("serviceType", getServiceType());
+            json.addProperty("description", description);
+            json.addProperty("cost", cost);
+            json.addProperty("mileageAtService", mileageAtService);
+            json.addProperty("technicianName", getTechnicianName());
+            return json;
+        }
     }
     
     /**
      * Add a vehicle to the system
      */
     public Vehicle addVehicle(String vin, String make, String model, int year) {
-        Vehicle vehicle = new Vehicle(vin, make, model, year);
+        return addVehicle(new Vehicle(vin, make, model, year));
+    }
+    
+    /**
+     * Add an existing vehicle, e.g. one moved from another partition
+     */
+    public Vehicle addVehicle(Vehicle vehicle) {
         vehicles.put(vehicle.getId(), vehicle);
-        maintenanceHistory.put(vehicle.getId(), new ArrayList<>());
+        maintenanceHistory.putIfAbsent(vehicle.getId(), new ArrayList<>());
+        vehicle.attach(this);
+        vehicleChanged(vehicle, vehicle.getOwnerId());
         return vehicle;
     }
     
+    /**
+     * Remove a vehicle together with its maintenance history
+     */
+    public Optional<Vehicle> removeVehicle(String id) {
+        Vehicle vehicle = vehicles.remove(id);
+        List<MaintenanceRecord> history = maintenanceHistory.remove(id);
+        if (history != null) {
+            recordCount -= history.size();
+            for (MaintenanceRecord record : history) {
+                rollup.remove(record);
+                record.attach(null);
+            }
+        }
+        if (vehicle != null) {
+            vehicle.attach(null);
+            listeners.forEach(l -> l.vehicleRemoved(vehicle));
+        }
+        return Optional.ofNullable(vehicle);
+    }
+    
     /**
      * Get vehicle by ID
      */
@@ -117,6 +278,13 @@ public class VehicleService {
         return Optional.ofNullable(vehicles.get(id));
     }
     
+    /**
+     * Get all vehicles
+     */
+    public List<Vehicle> getAllVehicles() {
+        return new ArrayList<>(vehicles.values());
+    }
+    
     /**
      * Find vehicles by owner
      */
@@ -130,15 +298,49 @@ public class VehicleService {
      * Add maintenance record
      */
     public MaintenanceRecord addMaintenanceRecord(String vehicleId, String serviceType) {
-        if (!vehicles.containsKey(vehicleId)) {
-            throw new IllegalArgumentException("Vehicle not found: " + vehicleId);
+        return addMaintenanceRecord(new MaintenanceRecord(vehicleId, serviceType));
+    }
+    
+    /**
+     * Add an existing maintenance record, e.g. one moved from another partition
+     */
+    public MaintenanceRecord addMaintenanceRecord(MaintenanceRecord record) {
+        if (!vehicles.containsKey(record.getVehicleId())) {
+            throw new IllegalArgumentException("Vehicle not found: " + record.getVehicleId());
         }
         
-        MaintenanceRecord record = new MaintenanceRecord(vehicleId, serviceType);
-        maintenanceHistory.get(vehicleId).add(record);
+        maintenanceHistory.get(record.getVehicleId()).add(record);
+        recordCount++;
+        rollup.add(record);
+        record.attach(this);
+        historyChanged(record.getVehicleId());
         return record;
     }
     
+    /**
+     * Add many existing maintenance records, e.g. at startup or when a partition loads a customer
+     * A batch at least as large as the stored history rebuilds the rollup in parallel instead of
+     * updating it per record, so repeated bulk loads stay linear overall
+     */
+    public void addMaintenanceRecords(Collection<MaintenanceRecord> records) {
+        for (MaintenanceRecord record : records) {
+            if (!vehicles.containsKey(record.getVehicleId())) {
+                throw new IllegalArgumentException("Vehicle not found: " + record.getVehicleId());
+            }
+        }
+        if (records.size() < Math.max(recordCount, BULK_REBUILD_MIN)) {
+            records.forEach(this::addMaintenanceRecord);
+            return;
+        }
+        records.forEach(r -> maintenanceHistory.get(r.getVehicleId()).add(r));
+        recordCount += records.size();
+        rebuildRollup();
+        records.stream()
+                .map(MaintenanceRecord::getVehicleId)
+                .distinct()
+                .forEach(this::historyChanged);
+    }
+    
     /**
      * Get maintenance history for a vehicle
      */
@@ -146,6 +348,62 @@ public class VehicleService {
         return new ArrayList<>(maintenanceHistory.getOrDefault(vehicleId, new ArrayList<>()));
     }
     
+    /**
+     * Get the revenue and throughput rollup over all maintenance history
+     */
+    public MaintenanceRollup getRollup() {
+        return rollup;
+    }
+    
+    /**
+     * Rebuild the rollup from the full maintenance history in parallel
+     * Runs from addMaintenanceRecords for large batches; no records may be added, removed or
+     * edited while it runs, as the rebuilt counters replace the current ones
+     */
+    public void rebuildRollup() {
+        rollup.rebuild(maintenanceHistory.values());
+        maintenanceHistory.values().forEach(records -> records.forEach(r -> r.attach(this)));
+    }
+    
+    /**
+     * Called by a record before one of its rolled-up fields changes
+     */
+    void recordChanging(MaintenanceRecord record) {
+        rollup.remove(record);
+    }
+    
+    /**
+     * Called by a record after one of its rolled-up fields changed, or the change failed
+     */
+    void recordChanged(MaintenanceRecord record) {
+        rollup.add(record);
+        historyChanged(record.getVehicleId());
+    }
+    
+    /**
+     * Register a listener for changes to stored vehicles and history, including edits made on the entities
+     */
+    public void addListener(VehicleListener listener) {
+        listeners.add(listener);
+    }
+    
+    /**
+     * Called by a stored vehicle after one of its fields changed
+     */
+    void vehicleChanged(Vehicle vehicle, String previousOwnerId) {
+        listeners.forEach(l -> l.vehicleChanged(vehicle, previousOwnerId));
+    }
+    
+    /**
+     * Called after a vehicle's maintenance history gained a record or a record changed
+     */
+    void historyChanged(String vehicleId) {
+        Vehicle vehicle = vehicles.get(vehicleId);
+        if (vehicle != null) {
+            vehicleChanged(vehicle, vehicle.getOwnerId());
+        }
+    }
+    
     /**
      * Calculate total maintenance cost for a vehicle
      */
@@ -233,6 +491,18 @@ public class VehicleService {
                 " ($" + String.format("%.2f", record.getCost()) + 
                 ") by " + record.getTechnicianName());
         }
+        System.out.println();
+        
+        // Revenue rollups
+        LocalDate today = LocalDate.now();
+        LocalDate monthStart = today.withDayOfMonth(1);
+        System.out.println("Revenue this month: " + service.getRollup().total(monthStart, today));
+        System.out.println("By service type:");
+        service.getRollup().byServiceType(monthStart, today)
+            .forEach((type, totals) -> System.out.println("  - " + type + ": " + totals));
+        System.out.println("By technician:");
+        service.getRollup().byTechnician(monthStart, today)
+            .forEach((tech, totals) -> System.out.println("  - " + tech + ": " + totals));
         
         System.out.println("\nVehicle service demonstration complete.");
     }
@@ -0,0 +1,101 @@
+package com.rlautoshop.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * ConsistentHashRing - Maps keys to named nodes with virtual-node consistent hashing
+ * Adding or removing a node only moves the keys in the ring segments it owns
+ */
+public class ConsistentHashRing<T> {
+
+    private final int virtualNodes;
+    private final TreeMap<Long, String> ring;
+    private final Map<String, T> nodes;
+
+    public ConsistentHashRing(int virtualNodes) {
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("virtualNodes must be positive: " + virtualNodes);
+        }
+        this.virtualNodes = virtualNodes;
+        this.ring = new TreeMap<>();
+        this.nodes = new LinkedHashMap<>();
+    }
+
+    /**
+     * Add a node under a unique name
+     */
+    public void add(String name, T node) {
+        if (nodes.containsKey(name)) {
+            throw new IllegalArgumentException("Node already on ring: " + name);
+        }
+        nodes.put(name, node);
+        for (int i = 0; i < virtualNodes; i++) {
+            ring.put(hash(name + "#" + i), name);
+        }
+    }
+
+    /**
+     * Remove a node by name
+     */
+    public T remove(String name) {
+        T node = nodes.remove(name);
+        if (node != null) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.remove(hash(name + "#" + i), name);
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Get the node owning a key
+     */
+    public T nodeFor(String key) {
+        if (ring.isEmpty()) {
+            throw new IllegalStateException("Hash ring has no nodes");
+        }
+        Map.Entry<Long, String> entry = ring.ceilingEntry(hash(key));
+        if (entry == null) {
+            entry = ring.firstEntry();
+        }
+        return nodes.get(entry.getValue());
+    }
+
+    public T get(String name) {
+        return nodes.get(name);
+    }
+
+    public Collection<T> getNodes() {
+        return new ArrayList<>(nodes.values());
+    }
+
+    public List<String> getNames() {
+        return new ArrayList<>(nodes.keySet());
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * 64-bit FNV-1a with a final avalanche mix, stable across JVMs
+     */
+    public static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
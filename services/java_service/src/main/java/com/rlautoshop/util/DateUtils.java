@@ -31,6 +31,18 @@ public class DateUtils {
         return Date.from(localDateTime.atZone(ZoneId.systemDefault()).toInstant());
     }
     
+    /**
+     * Convert Date to days since 1970-01-01 in the system time zone
+     * Avoids building a LocalDateTime when only the calendar day is needed
+     */
+    public static long toEpochDay(Date date) {
+        long epochSecond = Math.floorDiv(date.getTime(), 1000L);
+        int offsetSeconds = ZoneId.systemDefault().getRules()
+                .getOffset(Instant.ofEpochSecond(epochSecond))
+                .getTotalSeconds();
+        return Math.floorDiv(epochSecond + offsetSeconds, 86400L);
+    }
+    
     /**
      * Format LocalDateTime for display
      */
@@ -0,0 +1,97 @@
+package com.rlautoshop.util;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * StringDictionary - Thread-safe dictionary encoding for repetitive strings
+ * Maps each distinct value to a small int code so entities can share one copy
+ */
+public class StringDictionary {
+
+    /** Code used for null values */
+    public static final int NULL_CODE = -1;
+
+    private final String name;
+    private final ConcurrentHashMap<String, Integer> codes;
+    private volatile String[] values;
+    private int size;
+
+    public StringDictionary(String name) {
+        this.name = name;
+        this.codes = new ConcurrentHashMap<>();
+        this.values = new String[16];
+    }
+
+    /**
+     * Get the code for a value, assigning a new one on first sight
+     */
+    public int encode(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        return codes.computeIfAbsent(value, this::append);
+    }
+
+    /**
+     * Get the code for a value without assigning one, or NULL_CODE if unseen
+     */
+    public int lookup(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        return codes.getOrDefault(value, NULL_CODE);
+    }
+
+    /**
+     * Get the value for a code previously returned by encode
+     */
+    public String decode(int code) {
+        if (code == NULL_CODE) {
+            return null;
+        }
+        if (code < 0) {
+            throw new IllegalArgumentException("Unknown code in " + name + ": " + code);
+        }
+        String[] snapshot = values;
+        if (code < snapshot.length && snapshot[code] != null) {
+            return snapshot[code];
+        }
+        synchronized (this) {
+            if (code >= size) {
+                throw new IllegalArgumentException("Unknown code in " + name + ": " + code);
+            }
+            return values[code];
+        }
+    }
+
+    /**
+     * Number of distinct values stored
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private synchronized Integer append(String value) {
+        String[] current = values;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, size * 2);
+        }
+        current[size] = value;
+        values = current;
+        return size++;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + size() + " entries)";
+    }
+}